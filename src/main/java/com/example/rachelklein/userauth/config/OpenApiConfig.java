@@ -18,8 +18,15 @@ public class OpenApiConfig {
                 .scheme("bearer")
                 .bearerFormat("JWT");
 
+        SecurityScheme adminApiKey = new SecurityScheme()
+                .type(SecurityScheme.Type.APIKEY)
+                .in(SecurityScheme.In.HEADER)
+                .name("X-Admin-Api-Key");
+
         return new OpenAPI()
-                .components(new Components().addSecuritySchemes("bearerAuth", bearerAuth))
+                .components(new Components()
+                        .addSecuritySchemes("bearerAuth", bearerAuth)
+                        .addSecuritySchemes("adminApiKey", adminApiKey))
                 .addSecurityItem(new SecurityRequirement().addList("bearerAuth"));
     }
 }
@@ -1,15 +1,64 @@
 package com.example.rachelklein.userauth.config;
 
+import com.example.rachelklein.userauth.security.BCryptStrengthCalibrator;
+import com.example.rachelklein.userauth.security.BoundedPasswordEncoder;
+import com.example.rachelklein.userauth.security.MemoryBudgetPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Map;
+
 @Configuration
 public class PasswordConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            MeterRegistry meterRegistry,
+            @Value("${app.password.algorithm:bcrypt}") String algorithm,
+            @Value("${app.password.bcrypt.strength:0}") int bcryptStrength,
+            @Value("${app.password.bcrypt.target-millis:100}") long bcryptTargetMillis,
+            @Value("${app.password.bcrypt.min-strength:10}") int bcryptMinStrength,
+            @Value("${app.password.bcrypt.max-strength:16}") int bcryptMaxStrength,
+            @Value("${app.password.argon2.memory-kib:19456}") int argon2MemoryKib,
+            @Value("${app.password.argon2.iterations:2}") int argon2Iterations,
+            @Value("${app.password.argon2.parallelism:1}") int argon2Parallelism,
+            @Value("${app.password.argon2.memory-budget-mib:256}") int argon2MemoryBudgetMib,
+            @Value("${app.password.argon2.acquire-timeout-millis:2000}") long argon2AcquireTimeoutMillis,
+            @Value("${app.password.hashing.pool-size:0}") int poolSize,
+            @Value("${app.password.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${app.password.hashing.retry-after-seconds:1}") long retryAfterSeconds
+    ) {
+        // Argon2 hashes hold memory-kib each; the budget bounds how many may run at once.
+        PasswordEncoder argon2 = new MemoryBudgetPasswordEncoder(
+                new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2MemoryKib, argon2Iterations),
+                argon2MemoryKib, argon2MemoryBudgetMib * 1024, argon2AcquireTimeoutMillis, retryAfterSeconds,
+                meterRegistry);
+
+        // New hashes are stored as {id}...; hashes of the other algorithm, hashes written before the prefix existed
+        // (plain BCrypt) and hashes below the current cost all report upgradeEncoding() == true.
+        DelegatingPasswordEncoder delegating = switch (algorithm.toLowerCase()) {
+            case "bcrypt" -> new DelegatingPasswordEncoder("bcrypt", Map.of(
+                    "bcrypt", new BCryptPasswordEncoder(bcryptStrength > 0
+                            ? bcryptStrength
+                            : BCryptStrengthCalibrator.calibrate(bcryptTargetMillis, bcryptMinStrength,
+                                    bcryptMaxStrength)),
+                    "argon2", argon2));
+            case "argon2id" -> new DelegatingPasswordEncoder("argon2", Map.of(
+                    "bcrypt", new BCryptPasswordEncoder(),
+                    "argon2", argon2));
+            default -> throw new IllegalStateException("Unsupported app.password.algorithm: " + algorithm);
+        };
+        delegating.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+
+        // Hashing is CPU-bound, so by default the pool matches the core count.
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+
+        return new BoundedPasswordEncoder(delegating, threads, queueCapacity, retryAfterSeconds, meterRegistry);
     }
 }
@@ -1,6 +1,7 @@
 package com.example.rachelklein.userauth.config;
 
 import com.example.rachelklein.userauth.dto.error.ErrorResponse;
+import com.example.rachelklein.userauth.security.AdminApiKeyFilter;
 import com.example.rachelklein.userauth.security.JwtAuthenticationFilter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.context.annotation.Bean;
@@ -20,9 +21,15 @@ import java.time.LocalDateTime;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final AdminApiKeyFilter adminApiKeyFilter;
+    private final ObjectMapper objectMapper;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
+    // Spring's ObjectMapper: it has the java.time module ErrorResponse.timestamp needs.
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, AdminApiKeyFilter adminApiKeyFilter,
+                          ObjectMapper objectMapper) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.adminApiKeyFilter = adminApiKeyFilter;
+        this.objectMapper = objectMapper;
     }
 
     @Bean
@@ -46,7 +53,7 @@ public class SecurityConfig {
                             er.setErrorMessage("Missing or invalid Authorization header");
                             er.setTimestamp(LocalDateTime.now());
 
-                            new ObjectMapper().writeValue(response.getOutputStream(), er);
+                            objectMapper.writeValue(response.getOutputStream(), er);
                         })
                         .accessDeniedHandler((request, response, accessDeniedException) -> {
                             response.setStatus(403);
@@ -58,7 +65,7 @@ public class SecurityConfig {
                             er.setErrorMessage("Access denied");
                             er.setTimestamp(LocalDateTime.now());
 
-                            new ObjectMapper().writeValue(response.getOutputStream(), er);
+                            objectMapper.writeValue(response.getOutputStream(), er);
                         })
                 ).authorizeHttpRequests(auth -> auth
                         // Swagger + OpenAPI
@@ -70,6 +77,10 @@ public class SecurityConfig {
                         // H2 console (development)
                         .requestMatchers("/h2-console/**").permitAll()
 
+                        // Actuator: health is public (probes); metrics expose cache, queue and token internals
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/metrics/**").hasRole("ADMIN")
+
                         // Public endpoints
                         .requestMatchers(
                                 "/api/accounts/register",
@@ -77,19 +88,25 @@ public class SecurityConfig {
                                 "/api/accounts/verify",
                                 "/api/accounts/password/reset-request",
                                 "/api/accounts/password/reset",
-                                "/api/accounts/token/refresh"
+                                "/api/accounts/token/refresh",
+                                "/.well-known/jwks.json"
                         ).permitAll()
 
                         // Protected endpoints
                         .requestMatchers(
                                 "/api/accounts/info",
+                                "/api/accounts/sessions",
                                 "/api/accounts/profile"
                         ).authenticated()
 
+                        // Operator endpoints (X-Admin-Api-Key)
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
+
                         .anyRequest().denyAll()
                 );
 
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        http.addFilterBefore(adminApiKeyFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
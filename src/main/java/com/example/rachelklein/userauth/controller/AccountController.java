@@ -5,6 +5,7 @@ import com.example.rachelklein.userauth.dto.response.AccountInfoResponse;
 import com.example.rachelklein.userauth.dto.response.LoginResponse;
 import com.example.rachelklein.userauth.dto.response.RefreshTokenResponse;
 import com.example.rachelklein.userauth.dto.response.RegisterResponse;
+import com.example.rachelklein.userauth.dto.response.SessionsResponse;
 import com.example.rachelklein.userauth.service.AccountService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.security.SecurityRequirements;
@@ -48,6 +49,13 @@ public class AccountController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/sessions")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<SessionsResponse> sessions(Authentication authentication) {
+        SessionsResponse response = accountService.getSessions(authentication);
+        return ResponseEntity.ok(response);
+    }
+
 
     @PostMapping("/password/reset-request")
     public ResponseEntity<Void> requestPasswordReset(@Valid @RequestBody PasswordResetRequest request) {
@@ -0,0 +1,70 @@
+package com.example.rachelklein.userauth.controller;
+
+import com.example.rachelklein.userauth.dto.response.UserImportResponse;
+import com.example.rachelklein.userauth.service.UserExportService;
+import com.example.rachelklein.userauth.service.UserImportService;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/admin")
+@SecurityRequirement(name = "adminApiKey")
+public class AdminController {
+
+    private final UserImportService userImportService;
+    private final UserExportService userExportService;
+
+    public AdminController(UserImportService userImportService, UserExportService userExportService) {
+        this.userImportService = userImportService;
+        this.userExportService = userExportService;
+    }
+
+    // Body is text/csv or application/x-ndjson, read as a stream.
+    @PostMapping("/users/import")
+    public ResponseEntity<UserImportResponse> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body
+    ) throws IOException {
+        UserImportResponse response = userImportService.importUsers(body, contentType);
+        return ResponseEntity.ok(response);
+    }
+
+    // NDJSON written straight to the response while the rows are read; gzip when the client accepts it.
+    @GetMapping("/users/export")
+    public void exportUsers(
+            @RequestParam(required = false) List<String> fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response
+    ) throws IOException {
+        Set<UserExportService.Field> selected = userExportService.parseFields(fields);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        try (OutputStream out = gzip
+                ? new GZIPOutputStream(response.getOutputStream(), 64 * 1024)
+                : response.getOutputStream()) {
+            userExportService.export(selected, out);
+        }
+    }
+}
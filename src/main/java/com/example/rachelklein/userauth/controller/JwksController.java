@@ -0,0 +1,42 @@
+package com.example.rachelklein.userauth.controller;
+
+import com.example.rachelklein.userauth.security.JwtKeyProvider;
+import com.example.rachelklein.userauth.security.JwtKeySet;
+import io.swagger.v3.oas.annotations.security.SecurityRequirements;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@RestController
+public class JwksController {
+
+    private final JwtKeyProvider keyProvider;
+
+    public JwksController(JwtKeyProvider keyProvider) {
+        this.keyProvider = keyProvider;
+    }
+
+    // Served straight from the pre-rendered bytes of the current key set; downstream services cache it.
+    @SecurityRequirements
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> jwks(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        JwtKeySet keySet = keyProvider.current();
+        String etag = keySet.jwksEtag();
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic();
+
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(keySet.jwksJson());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.rachelklein.userauth.dto.request;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 
 public class LoginRequest {
 
@@ -10,6 +11,10 @@ public class LoginRequest {
     @NotBlank
     private String password;
 
+    // Optional; identifies the client so each device keeps its own refresh token. Generated if absent.
+    @Size(max = 64)
+    private String deviceId;
+
     public String getLoginID() {
         return loginID;
     }
@@ -25,4 +30,12 @@ public class LoginRequest {
     public void setPassword(String password) {
         this.password = password;
     }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
 }
@@ -12,6 +12,7 @@ public class LoginResponse {
     private Profile profile;
     private int statusCode;
     private String refreshToken;
+    private String deviceId;
 
     public UUID getUid() {
         return uid;
@@ -45,6 +46,14 @@ public class LoginResponse {
         this.statusCode = statusCode;
     }
 
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
     public String getRefreshToken() {
         return refreshToken;
     }
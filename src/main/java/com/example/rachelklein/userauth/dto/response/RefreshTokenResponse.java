@@ -3,6 +3,7 @@ package com.example.rachelklein.userauth.dto.response;
 public class RefreshTokenResponse {
 
     private String sessionToken;
+    private String refreshToken;
     private int statusCode;
 
     public String getSessionToken() {
@@ -13,6 +14,14 @@ public class RefreshTokenResponse {
         this.sessionToken = sessionToken;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
     public int getStatusCode() {
         return statusCode;
     }
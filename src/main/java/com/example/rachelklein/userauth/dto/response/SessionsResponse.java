@@ -0,0 +1,47 @@
+package com.example.rachelklein.userauth.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class SessionsResponse {
+
+    private int statusCode;
+    private List<Session> sessions;
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public List<Session> getSessions() {
+        return sessions;
+    }
+
+    public void setSessions(List<Session> sessions) {
+        this.sessions = sessions;
+    }
+
+    public static class Session {
+        private String deviceId;
+        private LocalDateTime expiresAt;
+
+        public String getDeviceId() {
+            return deviceId;
+        }
+
+        public void setDeviceId(String deviceId) {
+            this.deviceId = deviceId;
+        }
+
+        public LocalDateTime getExpiresAt() {
+            return expiresAt;
+        }
+
+        public void setExpiresAt(LocalDateTime expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+}
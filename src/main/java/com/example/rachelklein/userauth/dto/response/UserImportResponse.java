@@ -0,0 +1,100 @@
+package com.example.rachelklein.userauth.dto.response;
+
+import java.util.List;
+
+public class UserImportResponse {
+
+    private int statusCode;
+    private long imported;
+    private long rejected;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+    private List<Reject> rejects;
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(long rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public List<Reject> getRejects() {
+        return rejects;
+    }
+
+    public void setRejects(List<Reject> rejects) {
+        this.rejects = rejects;
+    }
+
+    public static class Reject {
+        private long line;
+        private String email;
+        private String reason;
+
+        public Reject() {
+        }
+
+        public Reject(long line, String email, String reason) {
+            this.line = line;
+            this.email = email;
+            this.reason = reason;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public void setLine(long line) {
+            this.line = line;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public void setReason(String reason) {
+            this.reason = reason;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.rachelklein.userauth.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// One-time email verification and password reset tokens, kept out of the users row. At most one of each type per user.
+@Entity
+@Table(
+        name = "account_tokens",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_account_tokens_user_type", columnNames = {"user_uid", "type"})
+        },
+        indexes = {
+                @Index(name = "idx_account_tokens_expiry", columnList = "expiry")
+        }
+)
+public class AccountToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 32)
+    private AccountTokenType type;
+
+    // SHA-256 of the token; the plaintext is only ever handed to the user.
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "token_hash", nullable = false, unique = true, length = 32)
+    private byte[] tokenHash;
+
+    @Column(name = "user_uid", nullable = false)
+    private UUID userUid;
+
+    @Column(nullable = false)
+    private LocalDateTime expiry;
+
+    public Long getId() {
+        return id;
+    }
+
+    public AccountTokenType getType() {
+        return type;
+    }
+
+    public void setType(AccountTokenType type) {
+        this.type = type;
+    }
+
+    public byte[] getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(byte[] tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public UUID getUserUid() {
+        return userUid;
+    }
+
+    public void setUserUid(UUID userUid) {
+        this.userUid = userUid;
+    }
+
+    public LocalDateTime getExpiry() {
+        return expiry;
+    }
+
+    public void setExpiry(LocalDateTime expiry) {
+        this.expiry = expiry;
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.rachelklein.userauth.entity;
+
+public enum AccountTokenType {
+    VERIFICATION,
+    PASSWORD_RESET
+}
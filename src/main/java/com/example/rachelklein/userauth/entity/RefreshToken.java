@@ -1,22 +1,48 @@
 package com.example.rachelklein.userauth.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
-@Table(name = "refresh_tokens")
+@Table(
+        name = "refresh_tokens",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_refresh_tokens_user_device", columnNames = {"user_uid", "device_id"})
+        },
+        indexes = {
+                @Index(name = "idx_refresh_tokens_user_expiry", columnList = "user_uid, expiry"),
+                @Index(name = "idx_refresh_tokens_family", columnList = "family_id"),
+                @Index(name = "idx_refresh_tokens_expiry", columnList = "expiry")
+        }
+)
 public class RefreshToken {
 
+    // Pooled sequence rather than IDENTITY, so Hibernate knows ids before insert and can batch the inserts.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_seq")
+    @SequenceGenerator(name = "refresh_tokens_seq", sequenceName = "refresh_tokens_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false, unique = true, length = 128)
-    private String token;
+    // SHA-256 of the token; the plaintext is only ever returned to the client.
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "token_hash", nullable = false, unique = true, length = 32)
+    private byte[] tokenHash;
+
+    // Set when a login issues the token and kept through every rotation; the hashes rotated away are remembered
+    // per family (refresh_token_retired_hashes), and presenting one of them again revokes the family.
+    @Column(name = "family_id", nullable = false, updatable = false)
+    private UUID familyId;
 
     @Column(nullable = false)
     private LocalDateTime expiry;
 
+    @Column(nullable = false, length = 64)
+    private String deviceId;
+
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "user_uid", nullable = false)
     private User user;
@@ -25,12 +51,20 @@ public class RefreshToken {
         return id;
     }
 
-    public String getToken() {
-        return token;
+    public byte[] getTokenHash() {
+        return tokenHash;
     }
 
-    public void setToken(String token) {
-        this.token = token;
+    public void setTokenHash(byte[] tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public UUID getFamilyId() {
+        return familyId;
+    }
+
+    public void setFamilyId(UUID familyId) {
+        this.familyId = familyId;
     }
 
     public LocalDateTime getExpiry() {
@@ -41,6 +75,14 @@ public class RefreshToken {
         this.expiry = expiry;
     }
 
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
     public User getUser() {
         return user;
     }
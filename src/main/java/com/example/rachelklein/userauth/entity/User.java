@@ -1,27 +1,44 @@
 package com.example.rachelklein.userauth.entity;
 
+import com.example.rachelklein.userauth.service.EmailMembershipListener;
+import com.example.rachelklein.userauth.util.EmailNormalizer;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+// Second-level cached (regions in hibernate-jcache.conf); lookups by email go through the query-cached
+// email_normalized index to the cached entity.
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@EntityListeners(EmailMembershipListener.class)
 @Table(
         name = "users",
         uniqueConstraints = {
-                @UniqueConstraint(columnNames = "email")
+                @UniqueConstraint(columnNames = "email"),
+                @UniqueConstraint(columnNames = "email_normalized")
         }
 )
 public class User {
 
+    // Time-ordered for index locality; rows created before the switch keep their random (v4) uids.
     @Id
-    @GeneratedValue
+    @UuidV7
     @Column(nullable = false, updatable = false)
     private UUID uid;
 
     @Column(nullable = false, unique = true)
     private String email;
 
+    // Derived from email on write and never updated by Hibernate, so an entity loaded before the backfill reached
+    // its row cannot write the null back. Null only on rows the backfill has not reached (or could not fill).
+    @Column(name = "email_normalized", unique = true, updatable = false)
+    private String emailNormalized;
+
     @Column(nullable = false)
     private String passwordHash;
 
@@ -42,16 +59,10 @@ public class User {
     @Column(nullable = false)
     private LocalDateTime registrationDate;
 
+    // Written only by LastLoginWriteBuffer, never by entity saves.
+    @Column(insertable = false, updatable = false)
     private LocalDateTime lastLoginDate;
 
-    private String verificationToken;
-
-    private LocalDateTime verificationTokenExpiry;
-
-    private String passwordResetToken;
-
-    private LocalDateTime passwordResetTokenExpiry;
-
     /* ===== Constructors ===== */
 
     public User() {
@@ -73,6 +84,11 @@ public class User {
 
     public void setEmail(String email) {
         this.email = email;
+        this.emailNormalized = EmailNormalizer.normalize(email);
+    }
+
+    public String getEmailNormalized() {
+        return emailNormalized;
     }
 
     public String getPasswordHash() {
@@ -146,36 +162,4 @@ public class User {
     public void setLastLoginDate(LocalDateTime lastLoginDate) {
         this.lastLoginDate = lastLoginDate;
     }
-
-    public String getVerificationToken() {
-        return verificationToken;
-    }
-
-    public void setVerificationToken(String verificationToken) {
-        this.verificationToken = verificationToken;
-    }
-
-    public LocalDateTime getVerificationTokenExpiry() {
-        return verificationTokenExpiry;
-    }
-
-    public void setVerificationTokenExpiry(LocalDateTime verificationTokenExpiry) {
-        this.verificationTokenExpiry = verificationTokenExpiry;
-    }
-
-    public String getPasswordResetToken() {
-        return passwordResetToken;
-    }
-
-    public void setPasswordResetToken(String passwordResetToken) {
-        this.passwordResetToken = passwordResetToken;
-    }
-
-    public LocalDateTime getPasswordResetTokenExpiry() {
-        return passwordResetTokenExpiry;
-    }
-
-    public void setPasswordResetTokenExpiry(LocalDateTime passwordResetTokenExpiry) {
-        this.passwordResetTokenExpiry = passwordResetTokenExpiry;
-    }
 }
@@ -0,0 +1,21 @@
+package com.example.rachelklein.userauth.repository;
+
+import com.example.rachelklein.userauth.entity.AccountToken;
+import com.example.rachelklein.userauth.entity.AccountTokenType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface AccountTokenRepository extends JpaRepository<AccountToken, Long> {
+
+    Optional<AccountToken> findByTokenHashAndType(byte[] tokenHash, AccountTokenType type);
+
+    // Returns 0 if someone else already used (or the sweeper removed) the token, or a resend replaced it: a re-issue
+    // keeps the row and only swaps its hash.
+    @Modifying
+    @Query("delete from AccountToken t where t.id = :id and t.tokenHash = :tokenHash")
+    int consume(@Param("id") Long id, @Param("tokenHash") byte[] tokenHash);
+}
@@ -1,14 +1,43 @@
 package com.example.rachelklein.userauth.repository;
 
 import com.example.rachelklein.userauth.entity.RefreshToken;
-import com.example.rachelklein.userauth.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
 
-    void deleteAllByUser(User user);
+    // Revokes a token family: the live token of the login session it was issued for.
+    @Modifying
+    @Query("delete from RefreshToken t where t.familyId = :familyId")
+    int deleteByFamilyId(@Param("familyId") UUID familyId);
+
+    // Makes room for a new session on this device in one statement: drops the device's current token and every
+    // other token except the newest `keep`, all within the user's (user_uid, expiry) index range. Declares the table
+    // it touches; an undeclared native update would invalidate every cached query, users included.
+    @Modifying
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = "refresh_tokens"))
+    @Query(value = """
+            delete from refresh_tokens
+            where user_uid = :uid
+              and (device_id = :deviceId
+                   or id not in (select id from refresh_tokens
+                                 where user_uid = :uid and device_id <> :deviceId
+                                 order by expiry desc, id desc
+                                 fetch first :keep rows only))
+            """, nativeQuery = true)
+    int deleteForNewSession(@Param("uid") UUID uid, @Param("deviceId") String deviceId, @Param("keep") int keep);
+
+    List<RefreshToken> findByUserUidAndExpiryAfterOrderByExpiryDesc(UUID uid, LocalDateTime now);
 }
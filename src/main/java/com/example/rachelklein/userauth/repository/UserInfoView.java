@@ -0,0 +1,24 @@
+package com.example.rachelklein.userauth.repository;
+
+import com.example.rachelklein.userauth.entity.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// The columns /api/accounts/info shows; no password hash, nothing for Hibernate to track.
+public record UserInfoView(UUID uid, String email, String firstName, String lastName, LocalDate birthDate,
+                           String phoneNumber, Boolean isVerified, LocalDateTime registrationDate,
+                           LocalDateTime lastLoginDate) {
+
+    public static UserInfoView of(User user) {
+        return new UserInfoView(user.getUid(), user.getEmail(), user.getFirstName(), user.getLastName(),
+                user.getBirthDate(), user.getPhoneNumber(), user.getIsVerified(), user.getRegistrationDate(),
+                user.getLastLoginDate());
+    }
+
+    public UserInfoView withLastLoginDate(LocalDateTime lastLoginDate) {
+        return new UserInfoView(uid, email, firstName, lastName, birthDate, phoneNumber, isVerified, registrationDate,
+                lastLoginDate);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.rachelklein.userauth.repository;
+
+import java.util.UUID;
+
+// The columns login needs to check credentials and build its response.
+public record UserLoginView(UUID uid, String email, String passwordHash, String firstName, String lastName,
+                            Boolean isVerified, Boolean isActive) {
+}
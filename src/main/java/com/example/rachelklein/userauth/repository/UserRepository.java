@@ -1,17 +1,99 @@
 package com.example.rachelklein.userauth.repository;
 
 import com.example.rachelklein.userauth.entity.User;
+import com.example.rachelklein.userauth.util.EmailNormalizer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
 
-    Optional<User> findByEmail(String email);
+    // Query cache regions for the projections below (sized in hibernate-jcache.conf).
+    String EMAIL_QUERY_REGION = "users-email-query";
+    String LOGIN_QUERY_REGION = "users-login-query";
 
-    boolean existsByEmail(String email);
+    // Lookups by email are case-insensitive: by the normalized form on its unique index, falling back to an exact
+    // match on the original column for rows EmailNormalizationBackfill has not filled in yet. Unknown emails are
+    // mostly stopped by EmailMembershipFilter before they get here, so the second query is rarely paid for.
+    default Optional<User> findByEmail(String email) {
+        Optional<User> user = findByEmailNormalized(EmailNormalizer.normalize(email));
+        return user.isPresent() ? user : findByLegacyEmail(email);
+    }
 
-    Optional<User> findByPasswordResetToken(String passwordResetToken);
+    default Optional<UserLoginView> findLoginViewByEmail(String email) {
+        Optional<UserLoginView> view = findLoginViewByEmailNormalized(EmailNormalizer.normalize(email));
+        return view.isPresent() ? view : findLegacyLoginViewByEmail(email);
+    }
+
+    // Caches email -> uid; the entity itself then comes from the "users" region.
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = EMAIL_QUERY_REGION)
+    })
+    @Query("select u from User u where u.emailNormalized = :emailNormalized")
+    Optional<User> findByEmailNormalized(@Param("emailNormalized") String emailNormalized);
+
+    // Not cached: a miss here is the common case and would only fill the region with empty results.
+    @Transactional(readOnly = true)
+    @Query("select u from User u where u.email = :email and u.emailNormalized is null")
+    Optional<User> findByLegacyEmail(@Param("email") String email);
+
+    // Read paths select only what they show, in read-only transactions: no entity, no snapshot, no flush. Results
+    // are query-cached; Hibernate invalidates them on any write to users it performs itself.
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = LOGIN_QUERY_REGION)
+    })
+    @Query("""
+            select new com.example.rachelklein.userauth.repository.UserLoginView(
+                u.uid, u.email, u.passwordHash, u.firstName, u.lastName, u.isVerified, u.isActive)
+            from User u where u.emailNormalized = :emailNormalized
+            """)
+    Optional<UserLoginView> findLoginViewByEmailNormalized(@Param("emailNormalized") String emailNormalized);
+
+    @Transactional(readOnly = true)
+    @Query("""
+            select new com.example.rachelklein.userauth.repository.UserLoginView(
+                u.uid, u.email, u.passwordHash, u.firstName, u.lastName, u.isVerified, u.isActive)
+            from User u where u.email = :email and u.emailNormalized is null
+            """)
+    Optional<UserLoginView> findLegacyLoginViewByEmail(@Param("email") String email);
+
+    // Not query-cached: UserInfoCache already fronts /info, and the lastLoginDate flushes would keep invalidating it.
+    @Transactional(readOnly = true)
+    @Query("""
+            select new com.example.rachelklein.userauth.repository.UserInfoView(
+                u.uid, u.email, u.firstName, u.lastName, u.birthDate, u.phoneNumber, u.isVerified,
+                u.registrationDate, u.lastLoginDate)
+            from User u where u.uid = :uid
+            """)
+    Optional<UserInfoView> findInfoViewByUid(@Param("uid") UUID uid);
+
+    // Only replaces the hash if nobody changed it since it was read (e.g. a concurrent password reset).
+    @Transactional
+    @Modifying
+    @Query("update User u set u.passwordHash = :newHash where u.uid = :uid and u.passwordHash = :oldHash")
+    int updatePasswordHashIfUnchanged(@Param("uid") UUID uid, @Param("oldHash") String oldHash,
+                                      @Param("newHash") String newHash);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.passwordHash = :newHash where u.uid = :uid")
+    int updatePasswordHash(@Param("uid") UUID uid, @Param("newHash") String newHash);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.isVerified = true where u.uid = :uid")
+    int markVerified(@Param("uid") UUID uid);
 
 }
@@ -0,0 +1,48 @@
+package com.example.rachelklein.userauth.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+// Picks the highest BCrypt work factor whose hash time on this machine stays within the target latency.
+public final class BCryptStrengthCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(BCryptStrengthCalibrator.class);
+
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 3;
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        // Measure once at the floor and extrapolate: each extra round doubles the cost.
+        long nanos = fastestHashNanos(minStrength);
+        long targetNanos = targetMillis * 1_000_000L;
+
+        int strength = minStrength;
+        while (strength < maxStrength && nanos * 2 <= targetNanos) {
+            strength++;
+            nanos *= 2;
+        }
+
+        log.info("BCrypt calibrated to strength {} (~{} ms per hash, target {} ms)",
+                strength, nanos / 1_000_000L, targetMillis);
+        return strength;
+    }
+
+    private static long fastestHashNanos(int strength) {
+        String salt = BCrypt.gensalt(strength);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            BCrypt.hashpw("calibration", salt);
+        }
+
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", salt);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+}
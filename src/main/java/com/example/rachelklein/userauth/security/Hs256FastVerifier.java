@@ -0,0 +1,485 @@
+package com.example.rachelklein.userauth.security;
+
+import com.example.rachelklein.userauth.exception.InvalidTokenException;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.time.Instant;
+import java.util.UUID;
+
+// Allocation-light verifier for the HS256 tokens this service issues: a {"kid","alg"} header and a flat
+// claims object. It checks the MAC over the raw token bytes with a per-thread Mac, reads only sub and exp,
+// and returns null for anything it does not recognise so the caller falls back to the full jjwt parser.
+final class Hs256FastVerifier {
+
+    private static final int MAC_LENGTH = 32;
+    private static final int SIGNATURE_CHARS = 43;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    VerifiedToken verify(String token, JwtKeySet keySet) {
+        int length = token.length();
+        int dot1 = token.indexOf('.');
+        int dot2 = dot1 < 0 ? -1 : token.indexOf('.', dot1 + 1);
+        if (dot1 <= 0 || dot2 < 0 || length - dot2 - 1 != SIGNATURE_CHARS) {
+            return null;
+        }
+
+        Scratch scratch = SCRATCH.get();
+        JwtSigningKey key = scratch.resolveKey(token, dot1, keySet);
+        if (key == null) {
+            return null;
+        }
+
+        // Signature check over the ASCII signing input.
+        byte[] input = scratch.input(dot2);
+        for (int i = 0; i < dot2; i++) {
+            char c = token.charAt(i);
+            if (c > 0x7f) {
+                return null;
+            }
+            input[i] = (byte) c;
+        }
+
+        Mac mac = scratch.mac(key.signingKey());
+        mac.update(input, 0, dot2);
+        try {
+            mac.doFinal(scratch.expectedMac, 0);
+        } catch (GeneralSecurityException e) {
+            return null;
+        }
+
+        if (decodeBase64Url(token, dot2 + 1, length, scratch.actualMac) != MAC_LENGTH) {
+            return null;
+        }
+        if (!constantTimeEquals(scratch.expectedMac, scratch.actualMac)) {
+            throw new InvalidTokenException();
+        }
+
+        // Claims: only sub and exp are read.
+        byte[] payload = scratch.payload(dot2 - dot1 - 1);
+        int payloadLength = decodeBase64Url(token, dot1 + 1, dot2, payload);
+        if (payloadLength < 0 || !scratch.claims.scan(payload, payloadLength)) {
+            return null;
+        }
+
+        UUID uid = parseUuid(payload, scratch.claims.subStart, scratch.claims.subEnd);
+        if (uid == null) {
+            return null;
+        }
+
+        if (System.currentTimeMillis() > scratch.claims.exp * 1000) {
+            throw new InvalidTokenException();
+        }
+
+        return new VerifiedToken(uid, scratch.headerKid, Instant.ofEpochSecond(scratch.claims.exp));
+    }
+
+    private static final class Scratch {
+
+        private final byte[] expectedMac = new byte[MAC_LENGTH];
+        private final byte[] actualMac = new byte[MAC_LENGTH];
+        private final ClaimsScanner claims = new ClaimsScanner();
+
+        private byte[] input = new byte[512];
+        private byte[] payload = new byte[384];
+
+        private Mac mac;
+        private Key macKey;
+
+        // Every token signed with the same key shares the same header, so its resolution is remembered.
+        private char[] header = new char[0];
+        private int headerLength = -1;
+        private JwtKeySet headerKeySet;
+        private JwtSigningKey headerKey;
+        private String headerKid;
+
+        byte[] input(int length) {
+            if (input.length < length) {
+                input = new byte[length];
+            }
+            return input;
+        }
+
+        byte[] payload(int base64Length) {
+            int length = base64Length * 3 / 4 + 3;
+            if (payload.length < length) {
+                payload = new byte[length];
+            }
+            return payload;
+        }
+
+        Mac mac(Key key) {
+            try {
+                if (mac == null) {
+                    mac = Mac.getInstance("HmacSHA256");
+                }
+                if (macKey != key) {
+                    mac.init(key);
+                    macKey = key;
+                }
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        JwtSigningKey resolveKey(String token, int headerEnd, JwtKeySet keySet) {
+            if (keySet == headerKeySet && headerLength == headerEnd && sameChars(token, header, headerEnd)) {
+                return headerKey;
+            }
+
+            byte[] decoded = new byte[headerEnd * 3 / 4 + 3];
+            int decodedLength = decodeBase64Url(token, 0, headerEnd, decoded);
+            HeaderScanner scanner = new HeaderScanner();
+            if (decodedLength < 0 || !scanner.scan(decoded, decodedLength)) {
+                return null;
+            }
+
+            JwtSigningKey key = keySet.find(scanner.kid);
+            if (key == null || !(key.signingKey() instanceof SecretKey) || !"HS256".equals(key.algorithm().getId())) {
+                return null;
+            }
+
+            if (header.length < headerEnd) {
+                header = new char[headerEnd];
+            }
+            token.getChars(0, headerEnd, header, 0);
+            headerLength = headerEnd;
+            headerKeySet = keySet;
+            headerKey = key;
+            headerKid = scanner.kid;
+            return key;
+        }
+
+        private static boolean sameChars(String token, char[] chars, int length) {
+            for (int i = 0; i < length; i++) {
+                if (token.charAt(i) != chars[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Flat JSON object scanner; anything nested, duplicated or otherwise unexpected makes it return false.
+    private abstract static class FlatJsonScanner {
+
+        boolean scan(byte[] buf, int end) {
+            reset();
+            int i = skipWhitespace(buf, 0, end);
+            if (i >= end || buf[i] != '{') {
+                return false;
+            }
+            i = skipWhitespace(buf, i + 1, end);
+            if (i < end && buf[i] == '}') {
+                return complete() && skipWhitespace(buf, i + 1, end) == end;
+            }
+
+            while (i < end) {
+                if (buf[i] != '"') {
+                    return false;
+                }
+                int keyStart = i + 1;
+                int keyEnd = endOfString(buf, keyStart, end, false);
+                if (keyEnd < 0) {
+                    return false;
+                }
+
+                i = skipWhitespace(buf, keyEnd + 1, end);
+                if (i >= end || buf[i] != ':') {
+                    return false;
+                }
+                i = skipWhitespace(buf, i + 1, end);
+                if (i >= end) {
+                    return false;
+                }
+
+                int valueStart = i;
+                int valueEnd;
+                boolean string = buf[i] == '"';
+                if (string) {
+                    valueEnd = endOfString(buf, i + 1, end, true);
+                    if (valueEnd < 0) {
+                        return false;
+                    }
+                    valueStart = i + 1;
+                    i = valueEnd + 1;
+                } else {
+                    while (i < end && buf[i] != ',' && buf[i] != '}' && !isWhitespace(buf[i])) {
+                        i++;
+                    }
+                    valueEnd = i;
+                    if (!isScalar(buf, valueStart, valueEnd)) {
+                        return false;
+                    }
+                }
+
+                if (!accept(buf, keyStart, keyEnd, string, valueStart, valueEnd)) {
+                    return false;
+                }
+
+                i = skipWhitespace(buf, i, end);
+                if (i < end && buf[i] == ',') {
+                    i = skipWhitespace(buf, i + 1, end);
+                } else if (i < end && buf[i] == '}') {
+                    return complete() && skipWhitespace(buf, i + 1, end) == end;
+                } else {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        abstract void reset();
+
+        abstract boolean accept(byte[] buf, int keyStart, int keyEnd, boolean string, int valueStart, int valueEnd);
+
+        abstract boolean complete();
+
+        static boolean keyIs(byte[] buf, int start, int end, String name) {
+            if (end - start != name.length()) {
+                return false;
+            }
+            for (int i = 0; i < name.length(); i++) {
+                if (buf[start + i] != name.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int endOfString(byte[] buf, int i, int end, boolean allowEscapes) {
+            while (i < end) {
+                byte b = buf[i];
+                if (b == '"') {
+                    return i;
+                }
+                if ((b & 0xff) < 0x20) {
+                    return -1;
+                }
+                if (b == '\\') {
+                    if (!allowEscapes) {
+                        return -1;
+                    }
+                    i++;
+                }
+                i++;
+            }
+            return -1;
+        }
+
+        // Numbers and the true/false/null literals; objects and arrays are not expected in our tokens.
+        private static boolean isScalar(byte[] buf, int start, int end) {
+            if (keyIs(buf, start, end, "true") || keyIs(buf, start, end, "false") || keyIs(buf, start, end, "null")) {
+                return true;
+            }
+            if (start == end) {
+                return false;
+            }
+            for (int i = start; i < end; i++) {
+                byte b = buf[i];
+                if (!((b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E')) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int skipWhitespace(byte[] buf, int i, int end) {
+            while (i < end && isWhitespace(buf[i])) {
+                i++;
+            }
+            return i;
+        }
+
+        private static boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+        }
+    }
+
+    private static final class HeaderScanner extends FlatJsonScanner {
+
+        private boolean hs256;
+        private String kid;
+
+        @Override
+        void reset() {
+            hs256 = false;
+            kid = null;
+        }
+
+        @Override
+        boolean accept(byte[] buf, int keyStart, int keyEnd, boolean string, int valueStart, int valueEnd) {
+            if (!string || hasEscape(buf, valueStart, valueEnd)) {
+                return false;
+            }
+            if (keyIs(buf, keyStart, keyEnd, "alg")) {
+                hs256 = !hs256 && keyIs(buf, valueStart, valueEnd, "HS256");
+                return hs256;
+            }
+            if (keyIs(buf, keyStart, keyEnd, "kid")) {
+                if (kid != null) {
+                    return false;
+                }
+                kid = new String(buf, valueStart, valueEnd - valueStart, StandardCharsets.UTF_8);
+                return true;
+            }
+            return keyIs(buf, keyStart, keyEnd, "typ");
+        }
+
+        @Override
+        boolean complete() {
+            return hs256;
+        }
+
+        private static boolean hasEscape(byte[] buf, int start, int end) {
+            for (int i = start; i < end; i++) {
+                if (buf[i] == '\\') {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class ClaimsScanner extends FlatJsonScanner {
+
+        private int subStart;
+        private int subEnd;
+        private long exp;
+        private boolean hasSub;
+        private boolean hasExp;
+
+        @Override
+        void reset() {
+            hasSub = false;
+            hasExp = false;
+        }
+
+        @Override
+        boolean accept(byte[] buf, int keyStart, int keyEnd, boolean string, int valueStart, int valueEnd) {
+            if (keyIs(buf, keyStart, keyEnd, "sub")) {
+                if (hasSub || !string) {
+                    return false;
+                }
+                hasSub = true;
+                subStart = valueStart;
+                subEnd = valueEnd;
+                return true;
+            }
+            if (keyIs(buf, keyStart, keyEnd, "exp")) {
+                if (hasExp || string) {
+                    return false;
+                }
+                hasExp = parseSeconds(buf, valueStart, valueEnd);
+                return hasExp;
+            }
+            // Time claims other than exp and iat carry validation rules that are left to jjwt.
+            return !keyIs(buf, keyStart, keyEnd, "nbf");
+        }
+
+        @Override
+        boolean complete() {
+            return hasSub && hasExp;
+        }
+
+        private boolean parseSeconds(byte[] buf, int start, int end) {
+            if (start == end || end - start > 12) {
+                return false;
+            }
+            long value = 0;
+            for (int i = start; i < end; i++) {
+                byte b = buf[i];
+                if (b < '0' || b > '9') {
+                    return false;
+                }
+                value = value * 10 + (b - '0');
+            }
+            exp = value;
+            return true;
+        }
+    }
+
+    // Returns the number of decoded bytes, or -1 for padding, invalid characters or non-canonical trailing bits.
+    static int decodeBase64Url(String src, int from, int to, byte[] dst) {
+        int bits = 0;
+        int bitCount = 0;
+        int out = 0;
+
+        if ((to - from) % 4 == 1) {
+            return -1;
+        }
+
+        for (int i = from; i < to; i++) {
+            int value = base64UrlValue(src.charAt(i));
+            if (value < 0) {
+                return -1;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                if (out >= dst.length) {
+                    return -1;
+                }
+                dst[out++] = (byte) (bits >> bitCount);
+            }
+        }
+
+        if ((bits & ((1 << bitCount) - 1)) != 0) {
+            return -1;
+        }
+        return out;
+    }
+
+    private static int base64UrlValue(char c) {
+        if (c >= 'A' && c <= 'Z') return c - 'A';
+        if (c >= 'a' && c <= 'z') return c - 'a' + 26;
+        if (c >= '0' && c <= '9') return c - '0' + 52;
+        if (c == '-') return 62;
+        if (c == '_') return 63;
+        return -1;
+    }
+
+    private static boolean constantTimeEquals(byte[] a, byte[] b) {
+        int diff = 0;
+        for (int i = 0; i < MAC_LENGTH; i++) {
+            diff |= a[i] ^ b[i];
+        }
+        return diff == 0;
+    }
+
+    // Canonical 8-4-4-4-12 form only; UUID.fromString accepts looser input, which is left to the fallback.
+    private static UUID parseUuid(byte[] buf, int start, int end) {
+        if (end - start != 36) {
+            return null;
+        }
+        long msb = 0;
+        long lsb = 0;
+        int digits = 0;
+        for (int i = 0; i < 36; i++) {
+            byte b = buf[start + i];
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (b != '-') {
+                    return null;
+                }
+                continue;
+            }
+            int nibble = Character.digit(b, 16);
+            if (nibble < 0) {
+                return null;
+            }
+            if (digits < 16) {
+                msb = (msb << 4) | nibble;
+            } else {
+                lsb = (lsb << 4) | nibble;
+            }
+            digits++;
+        }
+        return new UUID(msb, lsb);
+    }
+}
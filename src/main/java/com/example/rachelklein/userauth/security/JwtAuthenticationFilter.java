@@ -17,10 +17,10 @@ import java.util.UUID;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtService jwtService;
+    private final VerifiedTokenCache verifiedTokenCache;
 
-    public JwtAuthenticationFilter(JwtService jwtService) {
-        this.jwtService = jwtService;
+    public JwtAuthenticationFilter(VerifiedTokenCache verifiedTokenCache) {
+        this.verifiedTokenCache = verifiedTokenCache;
     }
 
     @Override
@@ -37,7 +37,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         UUID uid;
         try {
-            uid = jwtService.extractUidFromToken(token);
+            uid = verifiedTokenCache.extractUid(token);
         } catch (Exception ex) {
             // Invalid token → authentication is not set.
             // Let Spring Security return 401 via the authenticationEntryPoint.
@@ -0,0 +1,208 @@
+package com.example.rachelklein.userauth.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+@Component
+public class JwtKeyProvider implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyProvider.class);
+
+    private volatile JwtKeySet keySet;
+
+    private WatchService keyRingWatcher;
+
+    @Autowired
+    public JwtKeyProvider(
+            @Value("${app.jwt.algorithm:HS256}") String algorithm,
+            @Value("${app.jwt.secret}") String secret,
+            @Value("${app.jwt.key-id:default}") String keyId,
+            @Value("${app.jwt.private-key-location:}") String privateKeyLocation,
+            @Value("${app.jwt.public-key-location:}") String publicKeyLocation,
+            @Value("${app.jwt.keyring.location:}") String keyRingLocation,
+            @Value("${app.jwt.keyring.password:}") String keyRingPassword,
+            ResourceLoader resourceLoader
+    ) throws IOException {
+        JwtSigningKey key = switch (algorithm) {
+            case "HS256" -> JwtSigningKey.hmac(keyId, Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
+            case "ES256" -> asymmetricKey(Jwts.SIG.ES256, "EC", privateKeyLocation, publicKeyLocation, resourceLoader);
+            case "EdDSA" -> asymmetricKey(Jwts.SIG.EdDSA, "Ed25519", privateKeyLocation, publicKeyLocation, resourceLoader);
+            default -> throw new IllegalStateException("Unsupported app.jwt.algorithm: " + algorithm);
+        };
+
+        if (keyRingLocation.isBlank()) {
+            this.keySet = new JwtKeySet(key, List.of(key));
+            return;
+        }
+
+        if (!"HS256".equals(algorithm)) {
+            throw new IllegalStateException("app.jwt.keyring is only supported with app.jwt.algorithm=HS256");
+        }
+
+        // The single secret stays accepted for verification, so enabling the ring does not end existing sessions.
+        Path keyRingFile = Path.of(keyRingLocation).toAbsolutePath();
+        char[] password = keyRingPassword.toCharArray();
+        this.keySet = loadKeyRing(keyRingFile, password, key);
+        this.keyRingWatcher = watchKeyRing(keyRingFile, password, key);
+    }
+
+    public JwtKeyProvider(JwtKeySet keySet) {
+        this.keySet = keySet;
+    }
+
+    public JwtKeySet current() {
+        return keySet;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (keyRingWatcher != null) {
+            keyRingWatcher.close();
+        }
+    }
+
+    // Every HMAC secret-key entry becomes a key under its alias; the greatest alias signs new tokens,
+    // so operators name entries chronologically (e.g. jwt-20261018) and rotate by adding a new one.
+    private static JwtKeySet loadKeyRing(Path keyRingFile, char[] password, JwtSigningKey legacyKey) {
+        try (InputStream in = Files.newInputStream(keyRingFile)) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, password);
+
+            List<JwtSigningKey> keys = new ArrayList<>();
+            for (String alias : Collections.list(keyStore.aliases())) {
+                if (keyStore.isKeyEntry(alias) && keyStore.getKey(alias, password) instanceof SecretKey secretKey) {
+                    keys.add(JwtSigningKey.hmac(alias, Keys.hmacShaKeyFor(secretKey.getEncoded())));
+                }
+            }
+
+            if (keys.isEmpty()) {
+                throw new IllegalStateException("JWT key ring " + keyRingFile + " contains no secret keys");
+            }
+
+            JwtSigningKey active = keys.stream().max(Comparator.comparing(JwtSigningKey::kid)).orElseThrow();
+            if (keys.stream().noneMatch(k -> k.kid().equals(legacyKey.kid()))) {
+                keys.add(legacyKey);
+            }
+
+            log.info("Loaded JWT key ring {} ({} keys, active kid={})", keyRingFile, keys.size(), active.kid());
+            return new JwtKeySet(active, legacyKey, keys);
+
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to load JWT key ring " + keyRingFile, e);
+        }
+    }
+
+    private WatchService watchKeyRing(Path keyRingFile, char[] password, JwtSigningKey legacyKey) throws IOException {
+        WatchService watcher = FileSystems.getDefault().newWatchService();
+        keyRingFile.getParent().register(watcher,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread thread = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey watchKey = watcher.take();
+                    boolean changed = watchKey.pollEvents().stream()
+                            .anyMatch(event -> keyRingFile.getFileName().equals(event.context()));
+                    watchKey.reset();
+
+                    if (changed) {
+                        reloadKeyRing(keyRingFile, password, legacyKey);
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // Shutting down.
+            }
+        }, "jwt-keyring-watcher");
+        thread.setDaemon(true);
+        thread.start();
+
+        return watcher;
+    }
+
+    private void reloadKeyRing(Path keyRingFile, char[] password, JwtSigningKey legacyKey) {
+        try {
+            // The new snapshot is fully built before it is published; in-flight verifications keep using the old one.
+            this.keySet = loadKeyRing(keyRingFile, password, legacyKey);
+        } catch (RuntimeException e) {
+            // Typically a half-written file; the previous key ring stays active until the next change event.
+            log.warn("JWT key ring reload failed, keeping previous keys: {}", e.getMessage());
+        }
+    }
+
+    private static JwtSigningKey asymmetricKey(SignatureAlgorithm algorithm, String keyFactoryAlgorithm,
+                                               String privateKeyLocation, String publicKeyLocation,
+                                               ResourceLoader resourceLoader) {
+        KeyPair keyPair;
+
+        if (privateKeyLocation.isBlank() && publicKeyLocation.isBlank()) {
+            // Development fallback: tokens signed with an ephemeral key do not survive a restart.
+            log.warn("No JWT key pair configured for {}, generating an ephemeral one", algorithm.getId());
+            keyPair = "EdDSA".equals(algorithm.getId())
+                    ? Jwks.CRV.Ed25519.keyPair().build()
+                    : algorithm.keyPair().build();
+        } else {
+            try {
+                KeyFactory keyFactory = KeyFactory.getInstance(keyFactoryAlgorithm);
+                PrivateKey privateKey = keyFactory.generatePrivate(
+                        new PKCS8EncodedKeySpec(readPem(resourceLoader, privateKeyLocation)));
+                PublicKey publicKey = keyFactory.generatePublic(
+                        new X509EncodedKeySpec(readPem(resourceLoader, publicKeyLocation)));
+                keyPair = new KeyPair(publicKey, privateKey);
+            } catch (GeneralSecurityException | IOException e) {
+                throw new IllegalStateException("Unable to load JWT key pair for " + algorithm.getId(), e);
+            }
+        }
+
+        // RFC 7638 thumbprint, so the kid is stable for a given public key.
+        String kid = Jwks.builder().key(keyPair.getPublic()).idFromThumbprint().build().getId();
+
+        log.info("JWT signing with {} (kid={})", algorithm.getId(), kid);
+        return JwtSigningKey.asymmetric(kid, keyPair, algorithm);
+    }
+
+    private static byte[] readPem(ResourceLoader resourceLoader, String location) throws IOException {
+        if (location.isBlank()) {
+            throw new IOException("Both app.jwt.private-key-location and app.jwt.public-key-location are required");
+        }
+
+        try (InputStream in = resourceLoader.getResource(location).getInputStream()) {
+            String pem = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+            String base64 = pem.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+            return Base64.getDecoder().decode(base64);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.rachelklein.userauth.security;
+
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Immutable snapshot of the keys in use: the active signing key, every key accepted for
+// verification (indexed by kid), and the pre-rendered JWKS document for the public ones.
+public final class JwtKeySet {
+
+    private final JwtSigningKey active;
+    private final JwtSigningKey unkeyed;
+    private final Map<String, JwtSigningKey> keysByKid;
+    private final byte[] jwksJson;
+    private final String jwksEtag;
+
+    public JwtKeySet(JwtSigningKey active, Collection<JwtSigningKey> keys) {
+        this(active, active, keys);
+    }
+
+    public JwtKeySet(JwtSigningKey active, JwtSigningKey unkeyed, Collection<JwtSigningKey> keys) {
+        this.active = active;
+        this.unkeyed = unkeyed;
+        this.keysByKid = keys.stream()
+                .collect(Collectors.toUnmodifiableMap(JwtSigningKey::kid, Function.identity()));
+        this.jwksJson = renderJwks(keys);
+        this.jwksEtag = "\"" + DigestUtils.md5DigestAsHex(jwksJson) + "\"";
+    }
+
+    public JwtSigningKey active() {
+        return active;
+    }
+
+    // Tokens issued before kid stamping carry no kid; those are checked against the unkeyed (legacy) key.
+    public JwtSigningKey find(String kid) {
+        return kid == null ? unkeyed : keysByKid.get(kid);
+    }
+
+    public byte[] jwksJson() {
+        return jwksJson;
+    }
+
+    public String jwksEtag() {
+        return jwksEtag;
+    }
+
+    private static byte[] renderJwks(Collection<JwtSigningKey> keys) {
+        String body = keys.stream()
+                .filter(key -> key.verificationKey() instanceof PublicKey)
+                .map(key -> {
+                    PublicJwk<PublicKey> jwk = Jwks.builder()
+                            .key((PublicKey) key.verificationKey())
+                            .id(key.kid())
+                            .algorithm(key.algorithm().getId())
+                            .publicKeyUse("sig")
+                            .build();
+                    return Jwks.json(jwk);
+                })
+                .collect(Collectors.joining(","));
+
+        return ("{\"keys\":[" + body + "]}").getBytes(StandardCharsets.UTF_8);
+    }
+}
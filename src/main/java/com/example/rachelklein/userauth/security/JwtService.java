@@ -3,16 +3,15 @@ package com.example.rachelklein.userauth.security;
 import com.example.rachelklein.userauth.entity.User;
 import com.example.rachelklein.userauth.exception.InvalidTokenException;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.ProtectedHeader;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.time.Instant;
 import java.util.Date;
@@ -21,48 +20,102 @@ import java.util.UUID;
 @Service
 public class JwtService {
 
-    private final String secret;
+    private final JwtKeyProvider keyProvider;
+    private final JwtParser jwtParser;
+    private final Hs256FastVerifier fastVerifier;
     private final long expirationMinutes;
 
+    public JwtService(JwtKeyProvider keyProvider, long expirationMinutes) {
+        this(keyProvider, expirationMinutes, false);
+    }
+
+    @Autowired
     public JwtService(
-            @Value("${app.jwt.secret}") String secret,
-            @Value("${app.jwt.expiration-minutes}") long expirationMinutes
+            JwtKeyProvider keyProvider,
+            @Value("${app.jwt.expiration-minutes}") long expirationMinutes,
+            @Value("${app.jwt.fast-verifier.enabled:false}") boolean fastVerifierEnabled
     ) {
-        this.secret = secret;
+        this.keyProvider = keyProvider;
+        this.fastVerifier = fastVerifierEnabled ? new Hs256FastVerifier() : null;
+        // The parser is immutable and thread-safe, so it is built once; keys are resolved per token by kid.
+        this.jwtParser = Jwts.parser()
+                .keyLocator(new KidKeyLocator(keyProvider))
+                .build();
         this.expirationMinutes = expirationMinutes;
     }
 
     public String generateToken(User user) {
+        return generateToken(user.getUid(), user.getEmail());
+    }
+
+    public String generateToken(UUID uid, String email) {
         Instant now = Instant.now();
         Instant exp = now.plusSeconds(expirationMinutes * 60);
 
+        JwtSigningKey key = keyProvider.current().active();
+
         return Jwts.builder()
-                .setSubject(user.getUid().toString())
-                .claim("email", user.getEmail())
-                .setIssuedAt(Date.from(now))
-                .setExpiration(Date.from(exp))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .header().keyId(key.kid()).and()
+                .subject(uid.toString())
+                .claim("email", email)
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(exp))
+                .signWith(key.signingKey(), key.algorithm())
                 .compact();
     }
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public UUID extractUidFromToken(String token) {
+        return verifyToken(token).uid();
     }
 
-    public UUID extractUidFromToken(String token) {
+    public VerifiedToken verifyToken(String token) {
+
+        // Our own HS256 tokens are checked over the raw bytes; anything else goes through jjwt.
+        if (fastVerifier != null) {
+            VerifiedToken verified = fastVerifier.verify(token, keyProvider.current());
+            if (verified != null) {
+                return verified;
+            }
+        }
+
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            Jws<Claims> jws = jwtParser.parseSignedClaims(token);
+            Claims claims = jws.getPayload();
 
-            return UUID.fromString(claims.getSubject());
+            return new VerifiedToken(UUID.fromString(claims.getSubject()), jws.getHeader().getKeyId(),
+                    claims.getExpiration().toInstant());
 
         } catch (Exception e) {
             throw new InvalidTokenException();
         }
     }
 
+    public JwtKeySet currentKeys() {
+        return keyProvider.current();
+    }
+
+    // False once the key a token was verified with has been removed from the key ring, or replaced under its kid.
+    public boolean isTrustedKey(String kid, Key verificationKey) {
+        JwtSigningKey key = keyProvider.current().find(kid);
+        return key != null && key.verificationKey().equals(verificationKey);
+    }
+
+    private static class KidKeyLocator extends LocatorAdapter<Key> {
+
+        private final JwtKeyProvider keyProvider;
+
+        KidKeyLocator(JwtKeyProvider keyProvider) {
+            this.keyProvider = keyProvider;
+        }
+
+        @Override
+        protected Key locate(ProtectedHeader header) {
+            JwtSigningKey key = keyProvider.current().find(header.getKeyId());
+            if (key == null) {
+                throw new InvalidTokenException();
+            }
+            return key.verificationKey();
+        }
+    }
+
 }
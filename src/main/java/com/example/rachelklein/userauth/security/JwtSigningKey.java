@@ -0,0 +1,29 @@
+package com.example.rachelklein.userauth.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+
+import javax.crypto.SecretKey;
+import java.security.Key;
+import java.security.KeyPair;
+
+public record JwtSigningKey(
+        String kid,
+        Key signingKey,
+        Key verificationKey,
+        SecureDigestAlgorithm<Key, Key> algorithm
+) {
+
+    @SuppressWarnings("unchecked")
+    public static JwtSigningKey hmac(String kid, SecretKey key) {
+        SecureDigestAlgorithm<?, ?> hs256 = Jwts.SIG.HS256;
+        return new JwtSigningKey(kid, key, key, (SecureDigestAlgorithm<Key, Key>) hs256);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static JwtSigningKey asymmetric(String kid, KeyPair keyPair, SignatureAlgorithm algorithm) {
+        SecureDigestAlgorithm<?, ?> alg = algorithm;
+        return new JwtSigningKey(kid, keyPair.getPrivate(), keyPair.getPublic(), (SecureDigestAlgorithm<Key, Key>) alg);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.rachelklein.userauth.security;
+
+import com.example.rachelklein.userauth.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Caps the memory held by concurrent memory-hard hashes (Argon2): every hash takes memoryKib permits out of a global
+// budget, so the number of hashes in flight is budget / memory cost regardless of how many threads call in.
+public class MemoryBudgetPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Semaphore budget;
+    private final int permitsPerHash;
+    private final long acquireTimeoutMillis;
+    private final long retryAfterSeconds;
+
+    public MemoryBudgetPasswordEncoder(PasswordEncoder delegate, int memoryKibPerHash, int budgetKib,
+                                       long acquireTimeoutMillis, long retryAfterSeconds,
+                                       MeterRegistry meterRegistry) {
+        if (budgetKib < memoryKibPerHash) {
+            throw new IllegalArgumentException("Memory budget (" + budgetKib + " KiB) is smaller than a single hash ("
+                    + memoryKibPerHash + " KiB)");
+        }
+        this.delegate = delegate;
+        this.budget = new Semaphore(budgetKib, true);
+        this.permitsPerHash = memoryKibPerHash;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        Gauge.builder("password.hash.memory.in-use", budget, s -> budgetKib - s.availablePermits())
+                .baseUnit("kibibytes").register(meterRegistry);
+        Gauge.builder("password.hash.memory.queued", budget, Semaphore::getQueueLength).register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return withBudget(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return withBudget(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T withBudget(Supplier<T> hash) {
+        try {
+            if (!budget.tryAcquire(permitsPerHash, acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new ServiceBusyException(retryAfterSeconds);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException(retryAfterSeconds);
+        }
+
+        try {
+            return hash.get();
+        } finally {
+            budget.release(permitsPerHash);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.rachelklein.userauth.security;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record VerifiedToken(UUID uid, String kid, Instant expiresAt) {
+}
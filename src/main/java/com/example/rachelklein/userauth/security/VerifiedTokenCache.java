@@ -0,0 +1,80 @@
+package com.example.rachelklein.userauth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtService jwtService;
+    private final Cache<String, CachedToken> cache;
+
+    public VerifiedTokenCache(
+            JwtService jwtService,
+            MeterRegistry meterRegistry,
+            @Value("${app.jwt.cache.max-size:10000}") long maxSize
+    ) {
+        this.jwtService = jwtService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ExpireAtTokenExpiry())
+                .recordStats()
+                .build();
+
+        // Exposes cache.gets{result=hit|miss}, cache.evictions and cache.size under cache=jwt.verified-tokens.
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+    }
+
+    public UUID extractUid(String token) {
+
+        // Repeat presentations of an already verified token skip signature and claim parsing.
+        // Entries survive key rotation; only a removed key, or a new secret under the same kid, makes them untrusted.
+        CachedToken cached = cache.getIfPresent(token);
+        if (cached != null && cached.verified().expiresAt().isAfter(Instant.now())
+                && jwtService.isTrustedKey(cached.verified().kid(), cached.verificationKey())) {
+            return cached.verified().uid();
+        }
+
+        // Keys read before verifying: should the key ring reload meanwhile, the entry holds the older key and is
+        // verified again on its next use rather than trusted. Invalid tokens throw here and are never cached.
+        JwtKeySet keys = jwtService.currentKeys();
+        VerifiedToken verified = jwtService.verifyToken(token);
+        JwtSigningKey key = keys.find(verified.kid());
+        if (key != null) {
+            cache.put(token, new CachedToken(verified, key.verificationKey()));
+        }
+
+        return verified.uid();
+    }
+
+    private record CachedToken(VerifiedToken verified, Key verificationKey) {
+    }
+
+    private static class ExpireAtTokenExpiry implements Expiry<String, CachedToken> {
+
+        @Override
+        public long expireAfterCreate(String token, CachedToken cached, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), cached.verified().expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, CachedToken cached, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, cached, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, CachedToken cached, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
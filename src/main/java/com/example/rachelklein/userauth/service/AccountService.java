@@ -5,46 +5,75 @@ import com.example.rachelklein.userauth.dto.response.AccountInfoResponse;
 import com.example.rachelklein.userauth.dto.response.LoginResponse;
 import com.example.rachelklein.userauth.dto.response.RefreshTokenResponse;
 import com.example.rachelklein.userauth.dto.response.RegisterResponse;
-import com.example.rachelklein.userauth.entity.RefreshToken;
+import com.example.rachelklein.userauth.dto.response.SessionsResponse;
+import com.example.rachelklein.userauth.entity.AccountToken;
+import com.example.rachelklein.userauth.entity.AccountTokenType;
 import com.example.rachelklein.userauth.entity.User;
 import com.example.rachelklein.userauth.exception.*;
-import com.example.rachelklein.userauth.repository.RefreshTokenRepository;
+import com.example.rachelklein.userauth.repository.UserInfoView;
+import com.example.rachelklein.userauth.repository.UserLoginView;
 import com.example.rachelklein.userauth.repository.UserRepository;
 import com.example.rachelklein.userauth.security.JwtService;
-import com.example.rachelklein.userauth.util.TokenService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Service
 public class AccountService {
 
     private final UserRepository userRepository;
-    private final RefreshTokenRepository refreshTokenRepository;
     private final PasswordEncoder passwordEncoder;
-    private final TokenService tokenService;
+    private final AccountTokenService accountTokenService;
     private final JwtService jwtService;
+    private final PasswordRehashService passwordRehashService;
+    private final LastLoginWriteBuffer lastLoginWriteBuffer;
+    private final RefreshTokenService refreshTokenService;
+    private final UserInfoCache userInfoCache;
+    private final RegisteredEmailCache registeredEmailCache;
+    private final EmailMembershipFilter emailMembershipFilter;
+    private final TransactionTemplate transactionTemplate;
     private static final Logger log = LoggerFactory.getLogger(AccountService.class);
 
-    public AccountService(UserRepository userRepository,RefreshTokenRepository refreshTokenRepository,
-                          PasswordEncoder passwordEncoder, TokenService tokenService, JwtService jwtService) {
+    // uk_users_email (V1__initial_schema.sql) and, by prefix, uk_users_email_normalized (V5__email_normalized.sql);
+    // drivers report them with schema / index decorations around the name.
+    private static final String EMAIL_UNIQUE_CONSTRAINT = "uk_users_email";
+
+    public AccountService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                          AccountTokenService accountTokenService, JwtService jwtService,
+                          PasswordRehashService passwordRehashService, LastLoginWriteBuffer lastLoginWriteBuffer,
+                          RefreshTokenService refreshTokenService, UserInfoCache userInfoCache,
+                          RegisteredEmailCache registeredEmailCache, EmailMembershipFilter emailMembershipFilter,
+                          TransactionTemplate transactionTemplate) {
         this.userRepository = userRepository;
-        this.refreshTokenRepository = refreshTokenRepository;
         this.passwordEncoder = passwordEncoder;
-        this.tokenService = tokenService;
+        this.accountTokenService = accountTokenService;
         this.jwtService = jwtService;
+        this.passwordRehashService = passwordRehashService;
+        this.lastLoginWriteBuffer = lastLoginWriteBuffer;
+        this.refreshTokenService = refreshTokenService;
+        this.userInfoCache = userInfoCache;
+        this.registeredEmailCache = registeredEmailCache;
+        this.emailMembershipFilter = emailMembershipFilter;
+        this.transactionTemplate = transactionTemplate;
     }
 
     public RegisterResponse register(RegisterRequest request) {
 
-        // Check for existing email.
-        if (userRepository.existsByEmail(request.getEmail())) {
+        // Known duplicates are refused before hashing; anything else is caught by the unique constraint below.
+        if (registeredEmailCache.isRegistered(request.getEmail())) {
             throw new DuplicateEmailException("Email already exists");
         }
 
@@ -64,11 +93,26 @@ public class AccountService {
         user.setIsVerified(false);
         user.setIsActive(true);
 
-        // Create a temporary email verification token
-        user.setVerificationToken(tokenService.generateToken());
-        user.setVerificationTokenExpiry(LocalDateTime.now().plusHours(24));
-
-        userRepository.save(user);
+        // The account and its verification token commit together: a failed token insert must not leave an account
+        // nobody can verify (or register again). Only the inserts run in the transaction, so no pooled connection is
+        // held while the password above waits for and runs through the hashing pool.
+        String verificationToken = transactionTemplate.execute(status -> {
+            // A single insert (the uid is generated in-process), flushed here so a concurrent registration of the
+            // same email loses on this line rather than at commit.
+            try {
+                userRepository.saveAndFlush(user);
+            } catch (DataIntegrityViolationException e) {
+                if (!isEmailUniqueViolation(e)) {
+                    throw e;
+                }
+                registeredEmailCache.markRegistered(request.getEmail());
+                throw new DuplicateEmailException("Email already exists");
+            }
+            markRegisteredAfterCommit(request.getEmail());
+
+            // Create a temporary email verification token
+            return accountTokenService.issue(user.getUid(), AccountTokenType.VERIFICATION, Duration.ofHours(24));
+        });
 
         // Build the response.
         RegisterResponse response = new RegisterResponse();
@@ -76,60 +120,66 @@ public class AccountService {
         response.setStatusCode(200);
         response.setStatusMessage("OK");
         response.setEmailVerificationRequired(true);
-        response.setVerificationToken(user.getVerificationToken());
+        response.setVerificationToken(verificationToken);
 
         return response;
     }
 
     public LoginResponse login(LoginRequest request) {
 
+        // Emails that are certainly not registered are refused without a query.
+        if (!emailMembershipFilter.mightContain(request.getLoginID())) {
+            throw new InvalidCredentialsException("Invalid credentials");
+        }
+
         // Retrieve by email (login ID).
-        User user = userRepository.findByEmail(request.getLoginID()).orElseThrow(() -> new InvalidCredentialsException("Invalid credentials"));
+        UserLoginView user = userRepository.findLoginViewByEmail(request.getLoginID()).orElseThrow(() -> {
+            emailMembershipFilter.recordFalsePositive();
+            return new InvalidCredentialsException("Invalid credentials");
+        });
 
         // Password validation.
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
+        if (!passwordEncoder.matches(request.getPassword(), user.passwordHash())) {
             throw new InvalidCredentialsException("Invalid credentials");
         }
 
         // Email verification check.
-        if (!Boolean.TRUE.equals(user.getIsVerified())) {
+        if (!Boolean.TRUE.equals(user.isVerified())) {
             throw new AccountNotVerifiedException("Account not verified");
         }
 
-        if (!Boolean.TRUE.equals(user.getIsActive())) {
+        if (!Boolean.TRUE.equals(user.isActive())) {
             throw new AccountInactiveException();
         }
 
-        // Update lastLogin.
-        user.setLastLoginDate(LocalDateTime.now());
-        userRepository.save(user);
+        // Update lastLogin (written behind, in batches).
+        lastLoginWriteBuffer.record(user.uid(), LocalDateTime.now());
+        userInfoCache.invalidate(user.uid());
+
+        // Upgrade an outdated hash while the plaintext is at hand (skipped, not failed, when the hashing pool is busy).
+        passwordRehashService.rehashIfNeeded(user.uid(), request.getPassword(), user.passwordHash());
 
         // Build the response (without sessionToken at this stage).
         LoginResponse response = new LoginResponse();
         response.setUid(
-                user.getUid());
+                user.uid());
         response.setStatusCode(200);
 
         LoginResponse.Profile profile = new LoginResponse.Profile();
-        profile.setFirstName(user.getFirstName());
-        profile.setLastName(user.getLastName());
-        profile.setEmail(user.getEmail());
-        profile.setVerified(user.getIsVerified());
+        profile.setFirstName(user.firstName());
+        profile.setLastName(user.lastName());
+        profile.setEmail(user.email());
+        profile.setVerified(user.isVerified());
 
         response.setProfile(profile);
-        response.setSessionToken(jwtService.generateToken(user));
-
-        // Refresh Token (for JWT refresh capability)
-        refreshTokenRepository.deleteAllByUser(user);
+        response.setSessionToken(jwtService.generateToken(user.uid(), user.email()));
 
-        String refreshTokenValue = tokenService.generateToken();
-        RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setToken(refreshTokenValue);
-        refreshToken.setUser(user);
-        refreshToken.setExpiry(LocalDateTime.now().plusDays(7)); // 7 days (configurable).
-        refreshTokenRepository.save(refreshToken);
-
-        response.setRefreshToken(refreshTokenValue);
+        // Refresh Token (for JWT refresh capability), one per device.
+        String deviceId = request.getDeviceId() != null && !request.getDeviceId().isBlank()
+                ? request.getDeviceId()
+                : UUID.randomUUID().toString();
+        response.setRefreshToken(refreshTokenService.issue(user.uid(), deviceId));
+        response.setDeviceId(deviceId);
 
         return response;
     }
@@ -139,47 +189,57 @@ public class AccountService {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new UserNotFoundException());
 
-        if (user.getVerificationToken() == null || !user.getVerificationToken().equals(request.getToken())) {
-            throw new InvalidVerificationTokenException();
-        }
+        AccountToken token = accountTokenService.find(AccountTokenType.VERIFICATION, request.getToken())
+                .filter(t -> t.getUserUid().equals(user.getUid()))
+                .orElseThrow(InvalidVerificationTokenException::new);
 
-        if (user.getVerificationTokenExpiry() == null || user.getVerificationTokenExpiry().isBefore(LocalDateTime.now())) {
+        if (token.getExpiry().isBefore(LocalDateTime.now())) {
             throw new VerificationTokenExpiredException();
         }
 
-        user.setIsVerified(true);
-        user.setVerificationToken(null);
-        user.setVerificationTokenExpiry(null);
+        if (!accountTokenService.consume(token)) {
+            throw new InvalidVerificationTokenException();
+        }
 
-        userRepository.save(user);
+        userRepository.markVerified(user.getUid());
+        userInfoCache.invalidate(user.getUid());
     }
 
     public void requestPasswordReset(PasswordResetRequest request) {
 
-        User user = userRepository.findByEmail(request.getEmail()).orElseThrow(UserNotFoundException::new);
+        if (!emailMembershipFilter.mightContain(request.getEmail())) {
+            throw new UserNotFoundException();
+        }
 
-        String resetToken = tokenService.generateToken();
-        user.setPasswordResetToken(resetToken);
-        user.setPasswordResetTokenExpiry(LocalDateTime.now().plusHours(1));
+        User user = userRepository.findByEmail(request.getEmail()).orElseThrow(() -> {
+            emailMembershipFilter.recordFalsePositive();
+            return new UserNotFoundException();
+        });
 
-        userRepository.save(user);
+        String resetToken = accountTokenService.issue(user.getUid(), AccountTokenType.PASSWORD_RESET,
+                Duration.ofHours(1));
 
         log.info("Password reset token for {}: {}", user.getEmail(), resetToken);
     }
 
     public void resetPassword(PasswordResetConfirmRequest request) {
 
-        User user = userRepository.findByPasswordResetToken(request.getToken()).orElseThrow(InvalidResetTokenException::new);
+        AccountToken token = accountTokenService.find(AccountTokenType.PASSWORD_RESET, request.getToken())
+                .orElseThrow(InvalidResetTokenException::new);
 
-        if (user.getPasswordResetTokenExpiry() == null || user.getPasswordResetTokenExpiry().isBefore(LocalDateTime.now())) {
+        if (token.getExpiry().isBefore(LocalDateTime.now())) {
             throw new ResetTokenExpiredException();
         }
 
-        user.setPasswordHash(passwordEncoder.encode(request.getNewPassword()));
-        user.setPasswordResetToken(null);
-        user.setPasswordResetTokenExpiry(null);
+        String newHash = passwordEncoder.encode(request.getNewPassword());
 
-        userRepository.save(user);
+        // Used up before the password changes, so a token can only ever reset it once.
+        if (!accountTokenService.consume(token)) {
+            throw new InvalidResetTokenException();
+        }
+
+        userRepository.updatePasswordHash(token.getUserUid(), newHash);
+        userInfoCache.invalidate(token.getUserUid());
     }
 
     public AccountInfoResponse getAccountInfoFromAuthentication(Authentication authentication) {
@@ -190,7 +250,7 @@ public class AccountService {
 
         UUID uid = UUID.fromString(authentication.getPrincipal().toString());
 
-        User user = userRepository.findById(uid)
+        UserInfoView user = userInfoCache.get(uid)
                 .orElseThrow(UserNotFoundException::new);
 
         return buildAccountInfoResponse(user);
@@ -215,49 +275,94 @@ public class AccountService {
         if (profile.getBirthDate() != null) user.setBirthDate(profile.getBirthDate());
 
         userRepository.save(user);
+        userInfoCache.invalidate(uid);
 
-        return buildAccountInfoResponse(user);
+        return buildAccountInfoResponse(UserInfoView.of(user));
     }
 
-    private AccountInfoResponse buildAccountInfoResponse(User user) {
+    public SessionsResponse getSessions(Authentication authentication) {
+
+        if (authentication == null || authentication.getPrincipal() == null) {
+            throw new MissingAuthorizationHeaderException();
+        }
+
+        UUID uid = UUID.fromString(authentication.getPrincipal().toString());
+
+        List<SessionsResponse.Session> sessions = refreshTokenService.activeSessions(uid).stream()
+                .map(token -> {
+                    SessionsResponse.Session session = new SessionsResponse.Session();
+                    session.setDeviceId(token.getDeviceId());
+                    session.setExpiresAt(token.getExpiry());
+                    return session;
+                })
+                .toList();
+
+        SessionsResponse response = new SessionsResponse();
+        response.setStatusCode(200);
+        response.setSessions(sessions);
+        return response;
+    }
+
+    private AccountInfoResponse buildAccountInfoResponse(UserInfoView user) {
         AccountInfoResponse response = new AccountInfoResponse();
-        response.setUid(user.getUid());
-        response.setVerified(Boolean.TRUE.equals(user.getIsVerified()));
-        response.setRegistrationDate(user.getRegistrationDate());
-        response.setLastLogin(user.getLastLoginDate());
+        response.setUid(user.uid());
+        response.setVerified(Boolean.TRUE.equals(user.isVerified()));
+        response.setRegistrationDate(user.registrationDate());
+        response.setLastLogin(latest(user.lastLoginDate(), lastLoginWriteBuffer.pending(user.uid())));
 
         AccountInfoResponse.Profile p = new AccountInfoResponse.Profile();
-        p.setFirstName(user.getFirstName());
-        p.setLastName(user.getLastName());
-        p.setEmail(user.getEmail());
-        p.setBirthDate(user.getBirthDate() != null ? user.getBirthDate().toString() : null);
-        p.setPhoneNumber(user.getPhoneNumber());
+        p.setFirstName(user.firstName());
+        p.setLastName(user.lastName());
+        p.setEmail(user.email());
+        p.setBirthDate(user.birthDate() != null ? user.birthDate().toString() : null);
+        p.setPhoneNumber(user.phoneNumber());
 
         response.setProfile(p);
         return response;
     }
 
-    public RefreshTokenResponse refreshSessionToken(String refreshToken) {
-
-        RefreshToken stored = refreshTokenRepository.findByToken(refreshToken)
-                .orElseThrow(InvalidTokenException::new);
+    private static LocalDateTime latest(LocalDateTime stored, LocalDateTime pending) {
+        if (pending == null) return stored;
+        if (stored == null) return pending;
+        return pending.isAfter(stored) ? pending : stored;
+    }
 
-        if (stored.getExpiry().isBefore(LocalDateTime.now())) {
-            throw new ExpiredTokenException();
-        }
+    public RefreshTokenResponse refreshSessionToken(String refreshToken) {
 
-        User user = stored.getUser();
+        // Single-use: the presented refresh token is replaced by a new one.
+        RotatedRefreshToken rotated = refreshTokenService.rotate(refreshToken);
 
         // New JWT (new access token).
-        String newJwt = jwtService.generateToken(user);
+        String newJwt = jwtService.generateToken(rotated.uid(), rotated.email());
 
         RefreshTokenResponse response = new RefreshTokenResponse();
         response.setSessionToken(newJwt);
+        response.setRefreshToken(rotated.refreshToken());
         response.setStatusCode(200);
 
         return response;
     }
 
+    private void markRegisteredAfterCommit(String email) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            registeredEmailCache.markRegistered(email);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                registeredEmailCache.markRegistered(email);
+            }
+        });
+    }
 
-
+    private static boolean isEmailUniqueViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String constraint = violation.getConstraintName();
+                return constraint != null && constraint.toLowerCase().contains(EMAIL_UNIQUE_CONSTRAINT);
+            }
+        }
+        return false;
+    }
 }
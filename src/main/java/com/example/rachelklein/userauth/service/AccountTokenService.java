@@ -0,0 +1,71 @@
+package com.example.rachelklein.userauth.service;
+
+import com.example.rachelklein.userauth.entity.AccountToken;
+import com.example.rachelklein.userauth.entity.AccountTokenType;
+import com.example.rachelklein.userauth.repository.AccountTokenRepository;
+import com.example.rachelklein.userauth.util.TokenService;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+public class AccountTokenService {
+
+    // One statement on uk_account_tokens_user_type, so concurrent resend or reset requests for a user replace each
+    // other rather than racing a delete against an insert.
+    private static final String UPSERT_SQL = """
+            merge into account_tokens t
+            using (values (cast(? as uuid), cast(? as varchar(32)))) s (user_uid, type)
+            on t.user_uid = s.user_uid and t.type = s.type
+            when matched then update set token_hash = ?, expiry = ?
+            when not matched then insert (type, token_hash, user_uid, expiry)
+                values (s.type, ?, s.user_uid, ?)
+            """;
+
+    private final AccountTokenRepository accountTokenRepository;
+    private final TokenService tokenService;
+    private final JdbcTemplate jdbcTemplate;
+
+    public AccountTokenService(AccountTokenRepository accountTokenRepository, TokenService tokenService,
+                               JdbcTemplate jdbcTemplate) {
+        this.accountTokenRepository = accountTokenRepository;
+        this.tokenService = tokenService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Replaces any earlier token of this type for the user and returns the new plaintext token.
+    @Transactional
+    public String issue(UUID uid, AccountTokenType type, Duration validity) {
+        String value = tokenService.generateToken();
+        byte[] hash = tokenService.hash(value);
+        LocalDateTime expiry = LocalDateTime.now().plus(validity);
+        Object[] args = {uid, type.name(), hash, expiry, hash, expiry};
+        try {
+            jdbcTemplate.update(UPSERT_SQL, args);
+        } catch (DuplicateKeyException e) {
+            // Two first-time issuers can both miss the match and insert; the loser finds the winner's row on retry.
+            // Plain JDBC, so the failed statement does not doom the caller's transaction as a failed JPA flush would.
+            jdbcTemplate.update(UPSERT_SQL, args);
+        }
+        return value;
+    }
+
+    public Optional<AccountToken> find(AccountTokenType type, String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        return accountTokenRepository.findByTokenHashAndType(tokenService.hash(value), type);
+    }
+
+    // Single use: only one caller can consume a given token.
+    @Transactional
+    public boolean consume(AccountToken token) {
+        return accountTokenRepository.consume(token.getId(), token.getTokenHash()) == 1;
+    }
+}
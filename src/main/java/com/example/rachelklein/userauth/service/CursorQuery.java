@@ -0,0 +1,59 @@
+package com.example.rachelklein.userauth.service;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Full-table reads (export, filter rebuild) through a forward-only, read-only cursor fetched fetch-size rows at a
+// time, each row handed over as it arrives so nothing is materialised in memory.
+final class CursorQuery {
+
+    interface RowCallback {
+        void accept(ResultSet rs) throws SQLException;
+    }
+
+    private CursorQuery() {
+    }
+
+    static long forEachRow(JdbcTemplate jdbcTemplate, String sql, int fetchSize, RowCallback callback) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            boolean h2 = "H2".equals(connection.getMetaData().getDatabaseProductName());
+            boolean autoCommit = connection.getAutoCommit();
+            // Drivers only stream with fetch size inside a transaction; H2 otherwise materialises the whole result
+            // (spilling to a temp file) before returning the first row.
+            connection.setAutoCommit(false);
+            if (h2) {
+                setLazyQueryExecution(connection, true);
+            }
+            try (PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize);
+                long rows = 0;
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        callback.accept(rs);
+                        rows++;
+                    }
+                }
+                return rows;
+            } finally {
+                if (h2) {
+                    setLazyQueryExecution(connection, false);
+                }
+                connection.commit();
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+    }
+
+    private static void setLazyQueryExecution(Connection connection, boolean lazy) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET LAZY_QUERY_EXECUTION " + lazy);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.rachelklein.userauth.service;
+
+import com.example.rachelklein.userauth.util.EmailNormalizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bloom filter of the normalized emails of all users, so login and password reset requests for addresses that are
+// certainly not registered (credential stuffing, typos) are answered without a database query. A "maybe" still goes
+// to the database; there are no false negatives as long as every insert calls add() once committed.
+//
+// Built by a streaming scan of users.email when the application is ready and rebuilt every rebuild-interval-millis,
+// sized for twice the current row count at the configured false-positive rate. Until the first build completes
+// every email is a "maybe". Inserts that commit while a rebuild is scanning are added to both filters; the pair is
+// published as one snapshot, so an add() can never see the new filter's build finished but miss the new filter.
+@Component
+public class EmailMembershipFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailMembershipFilter.class);
+
+    // Room for growth between rebuilds, and a floor so a new database does not start with a tiny filter.
+    private static final long HEADROOM = 2;
+    private static final long MIN_CAPACITY = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int scanFetchSize;
+    private final double falsePositiveRate;
+    private final boolean enabled;
+    private final Timer rebuildTimer;
+    private final Counter absentCounter;
+    private final Counter maybeCounter;
+    private final Counter falsePositiveCounter;
+
+    // Only rebuild() replaces it.
+    private volatile Filters filters = new Filters(null, null);
+
+    public EmailMembershipFilter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                                 @Value("${app.users.email-filter.enabled:true}") boolean enabled,
+                                 @Value("${app.users.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                                 @Value("${app.users.email-filter.scan-fetch-size:1000}") int scanFetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.scanFetchSize = scanFetchSize;
+        this.enabled = enabled;
+        this.falsePositiveRate = falsePositiveRate;
+
+        this.rebuildTimer = Timer.builder("users.email-filter.rebuild").register(meterRegistry);
+        this.absentCounter = Counter.builder("users.email-filter.lookups").tag("result", "absent")
+                .register(meterRegistry);
+        this.maybeCounter = Counter.builder("users.email-filter.lookups").tag("result", "maybe")
+                .register(meterRegistry);
+        // "maybe" answers the database then did not confirm; over lookups{result=maybe} this is the observed rate.
+        this.falsePositiveCounter = Counter.builder("users.email-filter.false-positives").register(meterRegistry);
+
+        Gauge.builder("users.email-filter.entries", this, f -> f.current() == null ? 0 : f.current().entries.get())
+                .register(meterRegistry);
+        Gauge.builder("users.email-filter.size.bits", this, f -> f.current() == null ? 0 : f.current().size)
+                .register(meterRegistry);
+        Gauge.builder("users.email-filter.expected-false-positive-rate", this,
+                f -> f.current() == null ? 1.0 : f.current().expectedFalsePositiveRate()).register(meterRegistry);
+    }
+
+    // False only if the email is certainly not registered.
+    public boolean mightContain(String email) {
+        Bits bits = current();
+        if (bits == null || email == null) {
+            return true;
+        }
+        boolean maybe = bits.mightContain(EmailNormalizer.normalize(email));
+        (maybe ? maybeCounter : absentCounter).increment();
+        return maybe;
+    }
+
+    public void add(String email) {
+        String normalized = EmailNormalizer.normalize(email);
+        Filters snapshot = filters;
+        if (snapshot.current() != null) {
+            snapshot.current().add(normalized);
+        }
+        if (snapshot.building() != null) {
+            snapshot.building().add(normalized);
+        }
+    }
+
+    // The database did not have an email the filter let through.
+    public void recordFalsePositive() {
+        if (current() != null) {
+            falsePositiveCounter.increment();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.users.email-filter.rebuild-interval-millis:3600000}",
+            fixedDelayString = "${app.users.email-filter.rebuild-interval-millis:3600000}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+
+        long rows = jdbcTemplate.queryForObject("select count(*) from users", Long.class);
+        Bits next = new Bits(Math.max(rows * HEADROOM, MIN_CAPACITY), falsePositiveRate);
+        filters = new Filters(current(), next);
+        try {
+            CursorQuery.forEachRow(jdbcTemplate, "select email from users", scanFetchSize,
+                    rs -> next.add(EmailNormalizer.normalize(rs.getString(1))));
+            filters = new Filters(next, null);
+        } finally {
+            if (filters.building() != null) {
+                filters = new Filters(current(), null);
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        rebuildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Email membership filter rebuilt: {} emails, {} KiB, {} ms", next.entries.get(), next.size / 8192,
+                elapsed / 1_000_000);
+    }
+
+    private Bits current() {
+        return filters.current();
+    }
+
+    // The filter serving lookups, and the one a rebuild is filling (null when none is running).
+    private record Filters(Bits current, Bits building) {
+    }
+
+    // Bit array with k probes by double hashing (Kirsch-Mitzenmacher) of a 64-bit hash of the UTF-8 bytes.
+    static final class Bits {
+
+        private final AtomicLongArray words;
+        private final long size;
+        private final int hashes;
+        private final AtomicLong entries = new AtomicLong();
+
+        Bits(long expectedEntries, double falsePositiveRate) {
+            long bits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+            this.words = new AtomicLongArray(wordCount);
+            this.size = wordCount * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) size / expectedEntries * Math.log(2)));
+        }
+
+        void add(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, size);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long old;
+                do {
+                    old = words.get(word);
+                } while ((old & mask) == 0 && !words.compareAndSet(word, old, old | mask));
+            }
+            entries.incrementAndGet();
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, size);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double expectedFalsePositiveRate() {
+            return Math.pow(1 - Math.exp(-hashes * (double) entries.get() / size), hashes);
+        }
+
+        // FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 64-bit mixer so both halves are well spread.
+        private static long hash(String value) {
+            long h = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                h ^= b & 0xff;
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
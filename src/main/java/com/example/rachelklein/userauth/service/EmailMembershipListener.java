@@ -0,0 +1,32 @@
+package com.example.rachelklein.userauth.service;
+
+import com.example.rachelklein.userauth.entity.User;
+import jakarta.persistence.PostPersist;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Adds every User inserted through JPA to the EmailMembershipFilter once the insert has committed; only then is the
+// row visible to a concurrent rebuild scan, which the filter relies on. Instantiated by Hibernate through Spring.
+public class EmailMembershipListener {
+
+    private final EmailMembershipFilter emailMembershipFilter;
+
+    public EmailMembershipListener(EmailMembershipFilter emailMembershipFilter) {
+        this.emailMembershipFilter = emailMembershipFilter;
+    }
+
+    @PostPersist
+    public void persisted(User user) {
+        String email = user.getEmail();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            emailMembershipFilter.add(email);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                emailMembershipFilter.add(email);
+            }
+        });
+    }
+}
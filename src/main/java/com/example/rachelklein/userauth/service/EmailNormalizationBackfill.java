@@ -0,0 +1,160 @@
+package com.example.rachelklein.userauth.service;
+
+import com.example.rachelklein.userauth.entity.User;
+import com.example.rachelklein.userauth.repository.UserRepository;
+import com.example.rachelklein.userauth.util.EmailNormalizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Fills users.email_normalized for rows created before V5__email_normalized.sql. Walks by keyset over the primary key
+// in chunks, each chunk one short auto-commit batch, throttled to a maximum rows-per-second like ExpiredTokenSweeper.
+// Every write path sets the column since V5, so once a full pass has finished there is nothing left to do. Rows whose
+// normalized email is already taken (legacy accounts differing only in case) are left null, counted and logged:
+// lookups by any spelling now resolve to the account holding it, so those need merging by hand.
+@Component
+@ConditionalOnProperty(name = "app.users.email-backfill.enabled", havingValue = "true", matchIfMissing = true)
+public class EmailNormalizationBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailNormalizationBackfill.class);
+
+    // Keyset starting position, below any real uid (the database orders uuids as unsigned bytes).
+    private static final UUID MIN_UID = new UUID(0L, 0L);
+
+    private static final String SELECT_SQL = """
+            select uid, email from users
+            where uid > ? and email_normalized is null
+            order by uid
+            fetch first ? rows only
+            """;
+
+    private static final String UPDATE_SQL =
+            "update users set email_normalized = ? where uid = ? and email_normalized is null";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final int maxRowsPerSecond;
+
+    private volatile boolean complete;
+
+    public EmailNormalizationBackfill(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${app.users.email-backfill.chunk-size:500}") int chunkSize,
+                                      @Value("${app.users.email-backfill.max-rows-per-second:5000}") int maxRowsPerSecond) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.maxRowsPerSecond = maxRowsPerSecond;
+    }
+
+    @Scheduled(initialDelayString = "${app.users.email-backfill.initial-delay-millis:60000}",
+            fixedDelayString = "${app.users.email-backfill.interval-millis:3600000}")
+    public void run() {
+        if (complete) {
+            return;
+        }
+        try {
+            backfill();
+            complete = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // One full pass; returns the number of rows filled in.
+    public synchronized long backfill() throws InterruptedException {
+        long filled = 0;
+        long conflicts = 0;
+        UUID lastUid = MIN_UID;
+
+        while (true) {
+            long chunkStart = System.nanoTime();
+
+            List<Object[]> chunk = jdbcTemplate.query(SELECT_SQL,
+                    (rs, rowNum) -> new Object[]{
+                            EmailNormalizer.normalize(rs.getString(2)), rs.getObject(1, UUID.class)},
+                    lastUid, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            List<UUID> normalized = update(chunk);
+            filled += normalized.size();
+            conflicts += chunk.size() - normalized.size();
+            evict(normalized);
+
+            lastUid = (UUID) chunk.get(chunk.size() - 1)[1];
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+            throttle(chunk.size(), System.nanoTime() - chunkStart);
+        }
+
+        if (filled + conflicts > 0) {
+            log.info("Normalized emails backfilled: {} rows filled, {} left null", filled, conflicts);
+        }
+        return filled;
+    }
+
+    // Returns the uids of the chunk whose email_normalized is now set.
+    private List<UUID> update(List<Object[]> chunk) {
+        List<UUID> normalized = new ArrayList<>(chunk.size());
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, chunk);
+            chunk.forEach(row -> normalized.add((UUID) row[1]));
+        } catch (DuplicateKeyException e) {
+            // Part of the batch may have been applied; the statement is idempotent, so redo the chunk row by row.
+            for (Object[] row : chunk) {
+                try {
+                    jdbcTemplate.update(UPDATE_SQL, row);
+                    normalized.add((UUID) row[1]);
+                } catch (DuplicateKeyException conflict) {
+                    log.warn("Normalized email of user {} is already taken by another account; left null", row[1]);
+                    meterRegistry.counter("users.email-backfill.rows", "outcome", "conflict").increment();
+                }
+            }
+        }
+        meterRegistry.counter("users.email-backfill.rows", "outcome", "filled").increment(normalized.size());
+        return normalized;
+    }
+
+    // The updates bypass Hibernate: drop the cached entities and any cached (empty) lookups by normalized email.
+    private void evict(List<UUID> uids) {
+        if (uids.isEmpty()) {
+            return;
+        }
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        for (UUID uid : uids) {
+            cache.evict(User.class, uid);
+        }
+        cache.evictQueryRegion(UserRepository.EMAIL_QUERY_REGION);
+        cache.evictQueryRegion(UserRepository.LOGIN_QUERY_REGION);
+    }
+
+    private void throttle(int rows, long elapsedNanos) throws InterruptedException {
+        if (maxRowsPerSecond <= 0) {
+            return;
+        }
+        long budgetNanos = rows * 1_000_000_000L / maxRowsPerSecond;
+        long sleepMillis = (budgetNanos - elapsedNanos) / 1_000_000L;
+        if (sleepMillis > 0) {
+            Thread.sleep(sleepMillis);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.rachelklein.userauth.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Purges expired refresh tokens (and the retired hashes kept for reuse detection) and expired verification /
+// password reset tokens. Work is done in small chunks walked by keyset over the expiry indexes, each chunk its own
+// short auto-commit statement, and throttled to a maximum rows-per-second so a large backlog never holds long locks
+// or saturates the database.
+@Component
+@ConditionalOnProperty(name = "app.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class ExpiredTokenSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiredTokenSweeper.class);
+
+    // Keyset starting position, below any real (expiry, key).
+    private static final Timestamp MIN_EXPIRY = Timestamp.valueOf(LocalDateTime.of(1970, 1, 1, 0, 0));
+
+    private static final Sweep REFRESH_TOKENS = new Sweep("refresh", 0L,
+            """
+            select id, expiry from refresh_tokens
+            where expiry < ? and (expiry > ? or (expiry = ? and id > ?))
+            order by expiry, id
+            fetch first ? rows only
+            """,
+            "delete from refresh_tokens where id = ? and expiry < ?");
+
+    private static final Sweep ACCOUNT_TOKENS = new Sweep("account", 0L,
+            """
+            select id, expiry from account_tokens
+            where expiry < ? and (expiry > ? or (expiry = ? and id > ?))
+            order by expiry, id
+            fetch first ? rows only
+            """,
+            "delete from account_tokens where id = ? and expiry < ?");
+
+    private static final Sweep RETIRED_REFRESH_HASHES = new Sweep("retired-refresh", new byte[0],
+            """
+            select token_hash, expiry from refresh_token_retired_hashes
+            where expiry < ? and (expiry > ? or (expiry = ? and token_hash > ?))
+            order by expiry, token_hash
+            fetch first ? rows only
+            """,
+            "delete from refresh_token_retired_hashes where token_hash = ? and expiry < ?");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Timer sweepTimer;
+    private final int chunkSize;
+    private final int maxRowsPerSecond;
+
+    public ExpiredTokenSweeper(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                               @Value("${app.sweeper.chunk-size:500}") int chunkSize,
+                               @Value("${app.sweeper.max-rows-per-second:5000}") int maxRowsPerSecond) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.maxRowsPerSecond = maxRowsPerSecond;
+        this.sweepTimer = Timer.builder("tokens.sweeper.duration").register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${app.sweeper.interval-millis:300000}",
+            fixedDelayString = "${app.sweeper.interval-millis:300000}")
+    public void sweep() {
+        sweepTimer.record(() -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            try {
+                long refresh = sweep(REFRESH_TOKENS, now);
+                long account = sweep(ACCOUNT_TOKENS, now);
+                long retired = sweep(RETIRED_REFRESH_HASHES, now);
+
+                if (refresh + account + retired > 0) {
+                    log.info("Swept expired tokens: {} refresh, {} verification / password reset, {} retired refresh "
+                            + "hashes", refresh, account, retired);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private long sweep(Sweep sweep, Timestamp now) throws InterruptedException {
+        long total = 0;
+        Timestamp lastExpiry = MIN_EXPIRY;
+        Object lastKey = sweep.minKey();
+
+        while (true) {
+            long chunkStart = System.nanoTime();
+
+            List<Object[]> chunk = jdbcTemplate.query(sweep.selectSql(),
+                    (rs, rowNum) -> new Object[]{rs.getObject(1), rs.getTimestamp(2)},
+                    now, lastExpiry, lastExpiry, lastKey, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            List<Object[]> args = chunk.stream().map(row -> new Object[]{row[0], now}).toList();
+            int[] counts = jdbcTemplate.batchUpdate(sweep.applySql(), args);
+
+            int applied = 0;
+            for (int count : counts) {
+                applied += Math.max(count, 0);
+            }
+            total += applied;
+            meterRegistry.counter("tokens.sweeper.purged", "kind", sweep.kind()).increment(applied);
+
+            Object[] last = chunk.get(chunk.size() - 1);
+            lastKey = last[0];
+            lastExpiry = (Timestamp) last[1];
+
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+            throttle(chunk.size(), System.nanoTime() - chunkStart);
+        }
+        return total;
+    }
+
+    private void throttle(int rows, long elapsedNanos) throws InterruptedException {
+        if (maxRowsPerSecond <= 0) {
+            return;
+        }
+        long budgetNanos = rows * 1_000_000_000L / maxRowsPerSecond;
+        long sleepMillis = (budgetNanos - elapsedNanos) / 1_000_000L;
+        if (sleepMillis > 0) {
+            Thread.sleep(sleepMillis);
+        }
+    }
+
+    private record Sweep(String kind, Object minKey, String selectSql, String applySql) {
+    }
+}
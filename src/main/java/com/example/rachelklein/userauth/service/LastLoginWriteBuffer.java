@@ -0,0 +1,129 @@
+package com.example.rachelklein.userauth.service;
+
+import com.example.rachelklein.userauth.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Write-behind buffer for users.last_login_date. Logins only record the timestamp in memory (one entry per uid, so
+// a hot account collapses to a single row update); entries are written in one JDBC batch on a timer, when the
+// buffer reaches the flush threshold, and on shutdown.
+@Component
+public class LastLoginWriteBuffer implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LastLoginWriteBuffer.class);
+
+    // Never moves the stored value backwards, e.g. when an older entry is flushed after a newer one.
+    private static final String UPDATE_SQL =
+            "update users set last_login_date = ? where uid = ? and (last_login_date is null or last_login_date < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final int flushThreshold;
+    private final ConcurrentHashMap<UUID, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Counter flushedCounter;
+
+    public LastLoginWriteBuffer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.users.last-login.flush-interval-millis:5000}") long flushIntervalMillis,
+                                @Value("${app.users.last-login.flush-threshold:1000}") int flushThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.flushThreshold = flushThreshold;
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "last-login-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+
+        Gauge.builder("users.last-login.pending", pending, Map::size).register(meterRegistry);
+        this.flushedCounter = Counter.builder("users.last-login.flushed").register(meterRegistry);
+    }
+
+    public void record(UUID uid, LocalDateTime lastLogin) {
+        pending.merge(uid, lastLogin, (a, b) -> a.isAfter(b) ? a : b);
+
+        if (pending.size() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    // Not-yet-flushed value for this uid, or null.
+    public LocalDateTime pending(UUID uid) {
+        return pending.get(uid);
+    }
+
+    public synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        List<Map.Entry<UUID, LocalDateTime>> batch = new ArrayList<>(pending.size());
+        for (Map.Entry<UUID, LocalDateTime> entry : pending.entrySet()) {
+            batch.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(), (ps, entry) -> {
+            Timestamp lastLogin = Timestamp.valueOf(entry.getValue());
+            ps.setTimestamp(1, lastLogin);
+            ps.setObject(2, entry.getKey());
+            ps.setTimestamp(3, lastLogin);
+        });
+
+        // The batch bypasses Hibernate, so drop what its second-level cache holds for these users before the
+        // entries leave the buffer.
+        for (Map.Entry<UUID, LocalDateTime> entry : batch) {
+            entityManagerFactory.getCache().evict(User.class, entry.getKey());
+        }
+
+        // Only drop entries that were not overwritten by a newer login while we were writing.
+        for (Map.Entry<UUID, LocalDateTime> entry : batch) {
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+
+        flushedCounter.increment(batch.size());
+        return batch.size();
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdown();
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Entries stay buffered and are retried on the next flush.
+            log.warn("Failed to flush {} last-login updates", pending.size(), e);
+        }
+    }
+}
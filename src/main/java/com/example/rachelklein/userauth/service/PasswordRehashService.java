@@ -0,0 +1,42 @@
+package com.example.rachelklein.userauth.service;
+
+import com.example.rachelklein.userauth.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+// Upgrades outdated password hashes after a successful login, inline on the login call: the new hash runs on the
+// password encoder's bounded pool like the check before it, so no plaintext is left waiting on the heap for a
+// background worker. Best effort: if the hashing pool is busy or the write fails the upgrade is skipped, the login
+// still succeeds, and the upgrade is simply retried on the user's next login.
+@Service
+public class PasswordRehashService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordRehashService.class);
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    public PasswordRehashService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    public void rehashIfNeeded(UUID uid, String rawPassword, String currentHash) {
+        if (!passwordEncoder.upgradeEncoding(currentHash)) {
+            return;
+        }
+
+        try {
+            String newHash = passwordEncoder.encode(rawPassword);
+            if (userRepository.updatePasswordHashIfUnchanged(uid, currentHash, newHash) == 1) {
+                log.debug("Upgraded password hash for {}", uid);
+            }
+        } catch (RuntimeException e) {
+            log.debug("Password rehash for {} skipped, will retry on next login", uid, e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.rachelklein.userauth.service;
+
+import com.example.rachelklein.userauth.entity.RefreshToken;
+import com.example.rachelklein.userauth.exception.ExpiredTokenException;
+import com.example.rachelklein.userauth.exception.InvalidTokenException;
+import com.example.rachelklein.userauth.repository.RefreshTokenRepository;
+import com.example.rachelklein.userauth.repository.UserRepository;
+import com.example.rachelklein.userauth.util.TokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    // Compare-and-swap in one statement: only the caller whose UPDATE matched the current, unexpired hash gets a
+    // row back (with the user, so no second query is needed). Concurrent callers with the same token get nothing.
+    private static final String ROTATE_SQL = """
+            select u.uid, u.email, t.family_id, t.expiry
+            from final table (
+                update refresh_tokens
+                set token_hash = ?
+                where token_hash = ? and expiry > ?
+            ) t
+            join users u on u.uid = t.user_uid
+            """;
+
+    // Serializes one user's logins: without it two logins from the same device could both find no token to delete and
+    // both insert (refused by uk_refresh_tokens_user_device), and logins from different devices could together
+    // exceed the per-user cap.
+    private static final String LOCK_USER_SQL = "select uid from users where uid = ? for update";
+
+    // Kept until the family would have expired anyway; ExpiredTokenSweeper purges them after that.
+    private static final String RETIRE_SQL =
+            "insert into refresh_token_retired_hashes (token_hash, family_id, expiry) values (?, ?, ?)";
+
+    private static final String RETIRED_FAMILY_SQL =
+            "select family_id from refresh_token_retired_hashes where token_hash = ?";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final TokenService tokenService;
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxSessionsPerUser;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository,
+                               TokenService tokenService, JdbcTemplate jdbcTemplate,
+                               @Value("${app.sessions.max-per-user:5}") int maxSessionsPerUser) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.tokenService = tokenService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxSessionsPerUser = maxSessionsPerUser;
+    }
+
+    // Issues a refresh token for one device in one transaction: one DELETE (the device's previous token, plus the
+    // oldest sessions beyond the per-user cap) and one INSERT, under a lock on the user's row. Other devices keep
+    // their sessions. The user is only referenced by id, never loaded.
+    @Transactional
+    public String issue(UUID uid, String deviceId) {
+        jdbcTemplate.queryForList(LOCK_USER_SQL, UUID.class, uid);
+        refreshTokenRepository.deleteForNewSession(uid, deviceId, Math.max(maxSessionsPerUser - 1, 0));
+
+        String refreshTokenValue = tokenService.generateToken();
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(tokenService.hash(refreshTokenValue));
+        refreshToken.setUser(userRepository.getReferenceById(uid));
+        refreshToken.setDeviceId(deviceId);
+        refreshToken.setFamilyId(UUID.randomUUID());
+        refreshToken.setExpiry(LocalDateTime.now().plusDays(7)); // 7 days (configurable).
+        refreshTokenRepository.save(refreshToken);
+
+        return refreshTokenValue;
+    }
+
+    // Swaps the presented token for a new one of the same family. A token that was already rotated away, at any
+    // point in the family's history, is treated as stolen and the whole family (its live token) is revoked.
+    @Transactional(noRollbackFor = {InvalidTokenException.class, ExpiredTokenException.class})
+    public RotatedRefreshToken rotate(String refreshTokenValue) {
+        byte[] presentedHash = tokenService.hash(refreshTokenValue);
+        String newRefreshTokenValue = tokenService.generateToken();
+
+        List<Rotation> rotated = jdbcTemplate.query(ROTATE_SQL,
+                (rs, rowNum) -> new Rotation(rs.getObject(1, UUID.class), rs.getString(2),
+                        rs.getObject(3, UUID.class), rs.getObject(4, LocalDateTime.class)),
+                tokenService.hash(newRefreshTokenValue), presentedHash, Timestamp.valueOf(LocalDateTime.now()));
+
+        if (!rotated.isEmpty()) {
+            Rotation rotation = rotated.get(0);
+            try {
+                jdbcTemplate.update(RETIRE_SQL, presentedHash, rotation.familyId(), rotation.expiry());
+            } catch (DuplicateKeyException e) {
+                // A concurrent rotation of the same token got there first; undo ours rather than fork the family.
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                throw new InvalidTokenException();
+            }
+            return new RotatedRefreshToken(rotation.uid(), rotation.email(), newRefreshTokenValue);
+        }
+
+        // Failure path only: work out why, for the error code and reuse detection.
+        if (refreshTokenRepository.findByTokenHash(presentedHash).isPresent()) {
+            throw new ExpiredTokenException();
+        }
+        List<UUID> family = jdbcTemplate.queryForList(RETIRED_FAMILY_SQL, UUID.class, presentedHash);
+        if (!family.isEmpty() && refreshTokenRepository.deleteByFamilyId(family.get(0)) > 0) {
+            log.warn("Refresh token reuse detected; revoked its token family");
+        }
+        throw new InvalidTokenException();
+    }
+
+    @Transactional(readOnly = true)
+    public List<RefreshToken> activeSessions(UUID uid) {
+        return refreshTokenRepository.findByUserUidAndExpiryAfterOrderByExpiryDesc(uid, LocalDateTime.now());
+    }
+
+    // A row of ROTATE_SQL: the token's user, and the family and expiry its retired hash is remembered with.
+    private record Rotation(UUID uid, String email, UUID familyId, LocalDateTime expiry) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.rachelklein.userauth.service;
+
+import com.example.rachelklein.userauth.util.EmailNormalizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Emails this instance has seen registered, so a repeated registration (double submit, retry, scripted sign-ups) is
+// refused before paying for a password hash. Only a hint: a miss proves nothing and registration still relies on the
+// users.email_normalized unique constraint, which is also why entries are keyed by normalized email. Accounts are
+// never deleted and emails never change, so an entry cannot go stale.
+@Component
+public class RegisteredEmailCache {
+
+    private final Cache<String, Boolean> cache;
+
+    public RegisteredEmailCache(MeterRegistry meterRegistry,
+                                @Value("${app.users.registered-email-cache.max-size:100000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users.registered-emails");
+    }
+
+    public boolean isRegistered(String email) {
+        return cache.getIfPresent(EmailNormalizer.normalize(email)) != null;
+    }
+
+    public void markRegistered(String email) {
+        cache.put(EmailNormalizer.normalize(email), Boolean.TRUE);
+    }
+}
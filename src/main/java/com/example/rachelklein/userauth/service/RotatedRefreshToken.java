@@ -0,0 +1,6 @@
+package com.example.rachelklein.userauth.service;
+
+import java.util.UUID;
+
+public record RotatedRefreshToken(UUID uid, String email, String refreshToken) {
+}
@@ -0,0 +1,149 @@
+package com.example.rachelklein.userauth.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Streams UserImportRecords from CSV (first row names the columns, as the record components) or NDJSON (one object
+// per line), one line at a time. A row that cannot be parsed throws IllegalArgumentException and is skipped, so the
+// caller can reject it and carry on.
+class UserImportReader implements Closeable {
+
+    static final String CSV = "text/csv";
+    static final String NDJSON = "application/x-ndjson";
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Integer> csvColumns;
+    private long line;
+
+    private UserImportReader(BufferedReader reader, ObjectMapper objectMapper, Map<String, Integer> csvColumns,
+                             long line) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+        this.csvColumns = csvColumns;
+        this.line = line;
+    }
+
+    static UserImportReader open(InputStream in, String contentType, ObjectMapper objectMapper) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String type = contentType == null ? "" : contentType.toLowerCase();
+
+        if (type.startsWith(NDJSON)) {
+            return new UserImportReader(reader, objectMapper, null, 0);
+        }
+        if (type.startsWith(CSV)) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV input has no header row");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            List<String> names = splitCsv(header.startsWith("\uFEFF") ? header.substring(1) : header);
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim(), i);
+            }
+            if (!columns.containsKey("email")) {
+                throw new IllegalArgumentException("CSV header must contain an email column");
+            }
+            return new UserImportReader(reader, objectMapper, columns, 1);
+        }
+        throw new IllegalArgumentException("Unsupported import content type: " + contentType
+                + " (expected " + CSV + " or " + NDJSON + ")");
+    }
+
+    // Line number of the row last returned (or rejected).
+    long line() {
+        return line;
+    }
+
+    // Next record, or null at the end of input.
+    UserImportRecord next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+
+        return csvColumns != null ? fromCsv(text) : fromJson(text);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private UserImportRecord fromJson(String text) {
+        try {
+            return objectMapper.readValue(text, UserImportRecord.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON");
+        }
+    }
+
+    private UserImportRecord fromCsv(String text) {
+        List<String> fields = splitCsv(text);
+        return new UserImportRecord(
+                column(fields, "email"),
+                column(fields, "password"),
+                column(fields, "passwordHash"),
+                column(fields, "firstName"),
+                column(fields, "lastName"),
+                column(fields, "birthDate"),
+                column(fields, "phoneNumber"),
+                Boolean.parseBoolean(column(fields, "verified")));
+    }
+
+    private String column(List<String> fields, String name) {
+        Integer index = csvColumns.get(name);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    // RFC 4180 fields on a single line: comma separated, optionally double-quoted with "" as an escaped quote.
+    private static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.rachelklein.userauth.service;
+
+// One account of a bulk import: either a plaintext password (hashed on import) or an already encoded passwordHash.
+public record UserImportRecord(
+        String email,
+        String password,
+        String passwordHash,
+        String firstName,
+        String lastName,
+        String birthDate,
+        String phoneNumber,
+        boolean verified
+) {
+}
@@ -0,0 +1,331 @@
+package com.example.rachelklein.userauth.service;
+
+import com.example.rachelklein.userauth.dto.response.UserImportResponse;
+import com.example.rachelklein.userauth.entity.UuidV7Generator;
+import com.example.rachelklein.userauth.repository.UserRepository;
+import com.example.rachelklein.userauth.security.BoundedPasswordEncoder;
+import com.example.rachelklein.userauth.util.EmailNormalizer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+
+// Bulk account import for tenant migrations. Input is streamed and processed batch-size rows at a time: rows are
+// validated, de-duplicated within the batch and then against the users table with one IN query, plaintext passwords
+// are hashed in parallel on a dedicated fork-join pool (not the request-path hashing pool, so logins are not starved
+// or rejected), and the batch is inserted with one JDBC batch and committed (row by row if an email was taken in the
+// meantime). Bad rows are rejected and reported, they never abort the import.
+@Service
+public class UserImportService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final String INSERT_SQL = """
+            insert into users (uid, email, email_normalized, password_hash, first_name, last_name, birth_date,
+                               phone_number, is_verified, is_active, registration_date)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, true, ?)
+            """;
+
+    // Encodings the login path can verify: {bcrypt} or bare (legacy) BCrypt, and {argon2} Argon2id.
+    private static final Pattern ENCODED_HASH = Pattern.compile(
+            "^(\\{bcrypt})?\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$|^\\{argon2}\\$argon2id\\$.+$");
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+$");
+
+    // Every text column of users is varchar(255) (V1__initial_schema.sql, V5__email_normalized.sql).
+    private static final int MAX_COLUMN_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final EmailMembershipFilter emailMembershipFilter;
+    private final PasswordEncoder hasher;
+    private final ForkJoinPool hashingPool;
+    private final int batchSize;
+    private final int maxReportedRejects;
+
+    public UserImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             EntityManagerFactory entityManagerFactory, ObjectMapper objectMapper,
+                             PasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+                             EmailMembershipFilter emailMembershipFilter,
+                             @Value("${app.users.import.batch-size:1000}") int batchSize,
+                             @Value("${app.users.import.hashing-parallelism:0}") int hashingParallelism,
+                             @Value("${app.users.import.max-reported-rejects:1000}") int maxReportedRejects) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.emailMembershipFilter = emailMembershipFilter;
+        this.hasher = passwordEncoder instanceof BoundedPasswordEncoder bounded
+                ? bounded.unbounded()
+                : passwordEncoder;
+        this.hashingPool = new ForkJoinPool(hashingParallelism > 0
+                ? hashingParallelism
+                : Runtime.getRuntime().availableProcessors());
+        this.batchSize = batchSize;
+        this.maxReportedRejects = maxReportedRejects;
+    }
+
+    public UserImportResponse importUsers(InputStream in, String contentType) throws IOException {
+        long start = System.nanoTime();
+        Report report = new Report();
+
+        try (UserImportReader reader = UserImportReader.open(in, contentType, objectMapper)) {
+            List<Row> batch = new ArrayList<>(batchSize);
+            while (true) {
+                UserImportRecord record;
+                try {
+                    record = reader.next();
+                } catch (IllegalArgumentException e) {
+                    report.reject(reader.line(), null, e.getMessage());
+                    continue;
+                }
+                if (record == null) {
+                    break;
+                }
+
+                Row row = new Row(reader.line(), record);
+                String problem = validate(record);
+                if (problem != null) {
+                    report.reject(row, problem);
+                    continue;
+                }
+
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    importBatch(batch, report);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                importBatch(batch, report);
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        log.info("Imported {} users ({} rejected) in {} ms", report.imported, report.rejected, elapsedNanos / 1_000_000);
+
+        UserImportResponse response = new UserImportResponse();
+        response.setStatusCode(200);
+        response.setImported(report.imported);
+        response.setRejected(report.rejected);
+        response.setElapsedMillis(elapsedNanos / 1_000_000);
+        response.setRowsPerSecond(elapsedNanos > 0 ? report.imported * 1_000_000_000L / elapsedNanos : 0);
+        // Invalid rows are rejected on read, duplicates only once their batch runs; report them in input order.
+        report.rejects.sort(Comparator.comparingLong(UserImportResponse.Reject::getLine));
+        response.setRejects(report.rejects);
+        return response;
+    }
+
+    @Override
+    public void destroy() {
+        hashingPool.shutdown();
+    }
+
+    private void importBatch(List<Row> batch, Report report) {
+        // First occurrence of an email (as normalized) in the batch wins.
+        Map<String, Row> unique = new LinkedHashMap<>();
+        for (Row row : batch) {
+            if (unique.putIfAbsent(row.normalizedEmail(), row) != null) {
+                report.reject(row, "Duplicate email in input");
+            }
+        }
+        List<Row> rows = withoutExisting(new ArrayList<>(unique.values()), report);
+
+        // Hash inside the pool so the parallel stream's tasks run there too.
+        List<Object[]> args = hashingPool.submit(() -> rows.parallelStream().map(this::toInsertArgs).toList()).join();
+
+        List<Object[]> inserted;
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, args));
+            inserted = args;
+        } catch (DataIntegrityViolationException e) {
+            // Someone registered or imported one of these emails after the existence check, or a row got past
+            // validate() that the schema still refuses, and the batch rolled back. Redo it row by row, each such row
+            // rejected however many of them there are.
+            inserted = insertRowByRow(rows, args, report);
+        }
+        afterInsert(inserted);
+
+        report.imported += inserted.size();
+        meterRegistry.counter("users.import.rows", "outcome", "imported").increment(inserted.size());
+    }
+
+    private List<Row> withoutExisting(List<Row> rows, Report report) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        String placeholders = String.join(",", Collections.nCopies(rows.size(), "?"));
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(
+                "select email_normalized from users where email_normalized in (" + placeholders + ")", String.class,
+                rows.stream().map(Row::normalizedEmail).toArray()));
+        // Rows the normalization backfill has not reached yet.
+        for (String email : jdbcTemplate.queryForList(
+                "select email from users where email_normalized is null and email in (" + placeholders + ")",
+                String.class, rows.stream().map(Row::email).toArray())) {
+            existing.add(EmailNormalizer.normalize(email));
+        }
+
+        List<Row> remaining = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (existing.contains(row.normalizedEmail())) {
+                report.reject(row, "Email already exists");
+            } else {
+                remaining.add(row);
+            }
+        }
+        return remaining;
+    }
+
+    // rows and args are in the same order.
+    private List<Object[]> insertRowByRow(List<Row> rows, List<Object[]> args, Report report) {
+        List<Object[]> inserted = new ArrayList<>(args.size());
+        for (int i = 0; i < args.size(); i++) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, args.get(i));
+                inserted.add(args.get(i));
+            } catch (DuplicateKeyException e) {
+                report.reject(rows.get(i), "Email already exists");
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Import line {} refused by the database: {}", rows.get(i).line(),
+                        e.getMostSpecificCause().getMessage());
+                report.reject(rows.get(i), "Rejected by the database");
+            }
+        }
+        return inserted;
+    }
+
+    private void afterInsert(List<Object[]> args) {
+        for (Object[] row : args) {
+            emailMembershipFilter.add((String) row[1]);
+        }
+
+        // The insert bypasses Hibernate (and its listeners); cached (empty) lookups for these emails must go.
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictQueryRegion(UserRepository.EMAIL_QUERY_REGION);
+        cache.evictQueryRegion(UserRepository.LOGIN_QUERY_REGION);
+    }
+
+    private Object[] toInsertArgs(Row row) {
+        UserImportRecord record = row.record();
+        String passwordHash = record.passwordHash() != null
+                ? record.passwordHash()
+                : hasher.encode(record.password());
+        return new Object[]{
+                UuidV7Generator.next(),
+                row.email(),
+                row.normalizedEmail(),
+                passwordHash,
+                record.firstName(),
+                record.lastName(),
+                record.birthDate() != null ? Date.valueOf(LocalDate.parse(record.birthDate())) : null,
+                record.phoneNumber(),
+                record.verified(),
+                Timestamp.valueOf(LocalDateTime.now())
+        };
+    }
+
+    // Legacy passwords are taken as they are; the registration password policy applies to new accounts only.
+    private static String validate(UserImportRecord record) {
+        if (record.email() == null || !EMAIL.matcher(record.email().trim()).matches()
+                || tooLong(record.email().trim()) || tooLong(EmailNormalizer.normalize(record.email()))) {
+            return "Invalid email";
+        }
+        if ((record.password() == null) == (record.passwordHash() == null)) {
+            return "Exactly one of password and passwordHash is required";
+        }
+        if (record.password() != null && record.password().isBlank()) {
+            return "Blank password";
+        }
+        if (record.passwordHash() != null && !ENCODED_HASH.matcher(record.passwordHash()).matches()) {
+            return "Unsupported passwordHash encoding";
+        }
+        if (tooLong(record.passwordHash())) {
+            return "passwordHash too long";
+        }
+        if (tooLong(record.firstName())) {
+            return "firstName too long";
+        }
+        if (tooLong(record.lastName())) {
+            return "lastName too long";
+        }
+        if (tooLong(record.phoneNumber())) {
+            return "phoneNumber too long";
+        }
+        if (record.birthDate() != null) {
+            try {
+                LocalDate.parse(record.birthDate());
+            } catch (DateTimeParseException e) {
+                return "Invalid birthDate";
+            }
+        }
+        return null;
+    }
+
+    // In UTF-16 units, as H2 counts them; never fewer than a database counting code points.
+    private static boolean tooLong(String value) {
+        return value != null && value.length() > MAX_COLUMN_LENGTH;
+    }
+
+    private record Row(long line, UserImportRecord record) {
+
+        String email() {
+            return record.email().trim();
+        }
+
+        String normalizedEmail() {
+            return EmailNormalizer.normalize(record.email());
+        }
+    }
+
+    private class Report {
+        long imported;
+        long rejected;
+        final List<UserImportResponse.Reject> rejects = new ArrayList<>();
+
+        void reject(Row row, String reason) {
+            reject(row.line(), row.record().email(), reason);
+        }
+
+        void reject(long line, String email, String reason) {
+            rejected++;
+            meterRegistry.counter("users.import.rows", "outcome", "rejected").increment();
+            if (rejects.size() < maxReportedRejects) {
+                rejects.add(new UserImportResponse.Reject(line, email, reason));
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.rachelklein.userauth.service;
+
+import com.example.rachelklein.userauth.repository.UserInfoView;
+import com.example.rachelklein.userauth.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+// Immutable account snapshots for /api/accounts/info, so polling clients do not hit the database on every call.
+// Writes that change what the snapshot shows invalidate it; the TTL bounds staleness from any other writer.
+@Component
+public class UserInfoCache {
+
+    private final UserRepository userRepository;
+    private final LastLoginWriteBuffer lastLoginWriteBuffer;
+    private final Cache<UUID, UserInfoView> cache;
+
+    public UserInfoCache(
+            UserRepository userRepository,
+            LastLoginWriteBuffer lastLoginWriteBuffer,
+            MeterRegistry meterRegistry,
+            @Value("${app.users.info-cache.max-size:10000}") long maxSize,
+            @Value("${app.users.info-cache.ttl-seconds:30}") long ttlSeconds
+    ) {
+        this.userRepository = userRepository;
+        this.lastLoginWriteBuffer = lastLoginWriteBuffer;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+
+        // Exposes cache.gets{result=hit|miss}, cache.evictions and cache.size under cache=users.info.
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users.info");
+    }
+
+    public Optional<UserInfoView> get(UUID uid) {
+        return Optional.ofNullable(cache.get(uid, this::load));
+    }
+
+    public void invalidate(UUID uid) {
+        cache.invalidate(uid);
+    }
+
+    // Unknown users are not cached. The buffered lastLogin is read before the row, so a flush in between cannot
+    // leave a snapshot older than both.
+    private UserInfoView load(UUID uid) {
+        LocalDateTime pending = lastLoginWriteBuffer.pending(uid);
+        return userRepository.findInfoViewByUid(uid)
+                .map(view -> pending == null || (view.lastLoginDate() != null && !pending.isAfter(view.lastLoginDate()))
+                        ? view
+                        : view.withLastLoginDate(pending))
+                .orElse(null);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.rachelklein.userauth.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+// Canonical form of an email address for lookups (users.email_normalized) and membership checks: Unicode NFKC,
+// trimmed, lower-cased with the root locale (so e.g. a Turkish default locale cannot change 'I'). Deliberately
+// conservative: no provider-specific rules such as dropping dots or +tags, which would merge addresses that really
+// are different mailboxes.
+public final class EmailNormalizer {
+
+    private EmailNormalizer() {
+    }
+
+    public static String normalize(String email) {
+        if (email == null) {
+            return null;
+        }
+        return Normalizer.normalize(email, Normalizer.Form.NFKC).trim().toLowerCase(Locale.ROOT);
+    }
+}
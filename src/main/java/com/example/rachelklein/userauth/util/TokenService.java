@@ -2,6 +2,9 @@ package com.example.rachelklein.userauth.util;
 
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Base64;
 
@@ -16,4 +19,13 @@ public class TokenService {
         secureRandom.nextBytes(randomBytes);
         return encoder.encodeToString(randomBytes);
     }
+
+    // SHA-256 of the token as stored in the database (32 bytes). Tokens are random, so no salt is needed.
+    public byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
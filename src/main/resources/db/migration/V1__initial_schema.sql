@@ -0,0 +1,32 @@
+-- Schema as it was generated by ddl-auto before migrations were introduced. Existing databases are baselined at
+-- this version (spring.flyway.baseline-on-migrate) and only receive the later scripts.
+
+create table users (
+    uid uuid not null,
+    birth_date date,
+    email varchar(255) not null,
+    first_name varchar(255),
+    is_active boolean not null,
+    is_verified boolean not null,
+    last_login_date timestamp(6),
+    last_name varchar(255),
+    password_hash varchar(255) not null,
+    password_reset_token varchar(255),
+    password_reset_token_expiry timestamp(6),
+    phone_number varchar(255),
+    registration_date timestamp(6) not null,
+    verification_token varchar(255),
+    verification_token_expiry timestamp(6),
+    primary key (uid),
+    constraint uk_users_email unique (email)
+);
+
+create table refresh_tokens (
+    id bigint generated by default as identity,
+    expiry timestamp(6) not null,
+    token varchar(128) not null,
+    user_uid uuid not null,
+    primary key (id),
+    constraint uk_refresh_tokens_token unique (token),
+    constraint fk_refresh_tokens_user foreign key (user_uid) references users
+);
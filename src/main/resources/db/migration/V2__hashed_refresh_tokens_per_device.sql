@@ -0,0 +1,19 @@
+-- Refresh tokens are stored as SHA-256 hashes (the token is ASCII, so UTF-8 bytes match TokenService.hash),
+-- remember the hash they replaced on rotation, belong to a device, and take ids from a pooled sequence.
+
+alter table refresh_tokens add column token_hash binary(32);
+update refresh_tokens set token_hash = hash('SHA-256', stringtoutf8(token));
+alter table refresh_tokens alter column token_hash set not null;
+alter table refresh_tokens add constraint uk_refresh_tokens_token_hash unique (token_hash);
+alter table refresh_tokens drop constraint uk_refresh_tokens_token;
+alter table refresh_tokens drop column token;
+
+alter table refresh_tokens add column previous_token_hash binary(32);
+
+alter table refresh_tokens add column device_id varchar(64) default 'legacy' not null;
+alter table refresh_tokens alter column device_id drop default;
+
+-- Hibernate's pooled optimizer treats each sequence value as the top of a block of 50 ids.
+alter table refresh_tokens alter column id drop identity;
+create sequence refresh_tokens_seq start with 1 increment by 50;
+alter sequence refresh_tokens_seq restart with (select coalesce(max(id), 0) + 50 from refresh_tokens);
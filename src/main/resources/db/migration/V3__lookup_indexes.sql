@@ -0,0 +1,9 @@
+-- Every repository and sweeper query is served by an index; RepositoryQueryPlanIntegrationTest keeps it that way.
+
+create index idx_users_password_reset_token on users (password_reset_token);
+create index idx_users_verification_token_expiry on users (verification_token_expiry);
+create index idx_users_password_reset_token_expiry on users (password_reset_token_expiry);
+
+create index idx_refresh_tokens_user_expiry on refresh_tokens (user_uid, expiry);
+create index idx_refresh_tokens_previous_hash on refresh_tokens (previous_token_hash);
+create index idx_refresh_tokens_expiry on refresh_tokens (expiry);
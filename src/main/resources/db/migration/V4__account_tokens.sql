@@ -0,0 +1,35 @@
+-- Verification and password reset tokens move out of users into a narrow table of SHA-256 hashes, one row per
+-- (user, type). Outstanding tokens are carried over so links already sent keep working until they expire.
+
+create table account_tokens (
+    id bigint generated by default as identity,
+    type varchar(32) not null,
+    token_hash binary(32) not null,
+    user_uid uuid not null,
+    expiry timestamp(6) not null,
+    primary key (id),
+    constraint uk_account_tokens_token_hash unique (token_hash),
+    constraint uk_account_tokens_user_type unique (user_uid, type),
+    constraint fk_account_tokens_user foreign key (user_uid) references users
+);
+
+create index idx_account_tokens_expiry on account_tokens (expiry);
+
+insert into account_tokens (type, token_hash, user_uid, expiry)
+select type, hash('SHA-256', stringtoutf8(token)), user_uid, expiry
+from (
+    select 'VERIFICATION' as type, verification_token as token, uid as user_uid, verification_token_expiry as expiry
+    from users where verification_token is not null and verification_token_expiry is not null
+    union all
+    select 'PASSWORD_RESET', password_reset_token, uid, password_reset_token_expiry
+    from users where password_reset_token is not null and password_reset_token_expiry is not null
+) t;
+
+drop index idx_users_password_reset_token;
+drop index idx_users_verification_token_expiry;
+drop index idx_users_password_reset_token_expiry;
+
+alter table users drop column verification_token;
+alter table users drop column verification_token_expiry;
+alter table users drop column password_reset_token;
+alter table users drop column password_reset_token_expiry;
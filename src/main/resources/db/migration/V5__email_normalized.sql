@@ -0,0 +1,7 @@
+-- Case-insensitive lookups: email_normalized holds the EmailNormalizer form (NFKC, trimmed, lower-cased) under its
+-- own unique index, and every lookup by email goes through it. The display email keeps its original spelling.
+-- Existing rows are left null here (SQL has no NFKC) and filled in by EmailNormalizationBackfill in short chunks.
+
+alter table users add column email_normalized varchar(255);
+
+alter table users add constraint uk_users_email_normalized unique (email_normalized);
@@ -0,0 +1,22 @@
+-- Reuse detection per token family. Every token issued at login starts a family that all its rotations belong to,
+-- and each rotated-away hash is remembered with its family until the family expires, so replaying any retired
+-- token (not just the last one) revokes the family's live token. Existing tokens each become their own family.
+
+alter table refresh_tokens add column family_id uuid;
+update refresh_tokens set family_id = random_uuid();
+alter table refresh_tokens alter column family_id set not null;
+create index idx_refresh_tokens_family on refresh_tokens (family_id);
+
+create table refresh_token_retired_hashes (
+    token_hash binary(32) not null,
+    family_id uuid not null,
+    expiry timestamp(6) not null,
+    primary key (token_hash)
+);
+create index idx_refresh_token_retired_hashes_expiry on refresh_token_retired_hashes (expiry);
+
+insert into refresh_token_retired_hashes (token_hash, family_id, expiry)
+select previous_token_hash, family_id, expiry from refresh_tokens where previous_token_hash is not null;
+
+drop index idx_refresh_tokens_previous_hash;
+alter table refresh_tokens drop column previous_token_hash;
@@ -0,0 +1,12 @@
+-- One refresh token per device, enforced by the schema rather than only by RefreshTokenService.issue deleting the
+-- device's token before inserting the new one. Where several tokens share a device (every pre-V2 token became device
+-- 'legacy', and concurrent logins could race), all but the newest get their own id appended to the device id, so no
+-- session is lost. 43 + 1 + 19 digits fits device_id varchar(64).
+
+update refresh_tokens t
+set device_id = concat(left(device_id, 43), '#', id)
+where exists (select 1 from refresh_tokens n
+              where n.user_uid = t.user_uid and n.device_id = t.device_id
+                and (n.expiry > t.expiry or (n.expiry = t.expiry and n.id > t.id)));
+
+alter table refresh_tokens add constraint uk_refresh_tokens_user_device unique (user_uid, device_id);
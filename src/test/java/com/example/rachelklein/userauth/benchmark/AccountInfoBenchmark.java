@@ -0,0 +1,104 @@
+package com.example.rachelklein.userauth.benchmark;
+
+import com.example.rachelklein.userauth.UserAuthServiceApplication;
+import com.example.rachelklein.userauth.dto.response.AccountInfoResponse;
+import com.example.rachelklein.userauth.entity.User;
+import com.example.rachelklein.userauth.repository.UserInfoView;
+import com.example.rachelklein.userauth.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Cost of building the /api/accounts/info response from the full User entity (previous implementation, "entity")
+ * vs from the read-only UserInfoView projection (what UserInfoCache loads on a miss, "projection"). Both read the
+ * database: the second-level and query caches are off, and UserInfoCache is bypassed, so the comparison is the
+ * entity load against the projection query rather than against a cache hit. Compare gc.alloc.rate.norm:
+ *
+ *   mvn -P benchmark test-compile exec:exec -Dbenchmark=AccountInfoBenchmark -Dbenchmark.args="-prof gc"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountInfoBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        context = SpringApplication.run(UserAuthServiceApplication.class,
+                "--spring.main.web-application-type=none",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=warn",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--app.sweeper.enabled=false",
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "--spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        userRepository = context.getBean(UserRepository.class);
+
+        user = new User();
+        user.setEmail("benchmark.info@example.com");
+        user.setPasswordHash("unused");
+        user.setFirstName("Bench");
+        user.setLastName("Mark");
+        user.setBirthDate(LocalDate.of(1990, 1, 15));
+        user.setPhoneNumber("+972501234567");
+        user.setIsVerified(true);
+        user.setRegistrationDate(LocalDateTime.now());
+        user = userRepository.save(user);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountInfoResponse entity() {
+        User loaded = userRepository.findById(user.getUid()).orElseThrow();
+
+        AccountInfoResponse response = new AccountInfoResponse();
+        response.setUid(loaded.getUid());
+        response.setVerified(Boolean.TRUE.equals(loaded.getIsVerified()));
+        response.setRegistrationDate(loaded.getRegistrationDate());
+        response.setLastLogin(loaded.getLastLoginDate());
+
+        AccountInfoResponse.Profile p = new AccountInfoResponse.Profile();
+        p.setFirstName(loaded.getFirstName());
+        p.setLastName(loaded.getLastName());
+        p.setEmail(loaded.getEmail());
+        p.setBirthDate(loaded.getBirthDate() != null ? loaded.getBirthDate().toString() : null);
+        p.setPhoneNumber(loaded.getPhoneNumber());
+        response.setProfile(p);
+        return response;
+    }
+
+    @Benchmark
+    public AccountInfoResponse projection() {
+        UserInfoView loaded = userRepository.findInfoViewByUid(user.getUid()).orElseThrow();
+
+        AccountInfoResponse response = new AccountInfoResponse();
+        response.setUid(loaded.uid());
+        response.setVerified(Boolean.TRUE.equals(loaded.isVerified()));
+        response.setRegistrationDate(loaded.registrationDate());
+        response.setLastLogin(loaded.lastLoginDate());
+
+        AccountInfoResponse.Profile p = new AccountInfoResponse.Profile();
+        p.setFirstName(loaded.firstName());
+        p.setLastName(loaded.lastName());
+        p.setEmail(loaded.email());
+        p.setBirthDate(loaded.birthDate() != null ? loaded.birthDate().toString() : null);
+        p.setPhoneNumber(loaded.phoneNumber());
+        response.setProfile(p);
+        return response;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.rachelklein.userauth.benchmark;
+
+import com.example.rachelklein.userauth.entity.User;
+import com.example.rachelklein.userauth.security.JwtKeyProvider;
+import com.example.rachelklein.userauth.security.JwtKeySet;
+import com.example.rachelklein.userauth.security.JwtService;
+import com.example.rachelklein.userauth.security.JwtSigningKey;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Sign / verify throughput of JwtService against the previous implementation,
+ * which re-derived the HMAC key and rebuilt the parser on every call ("legacy*"),
+ * and of the HS256 fast-path verifier against the jjwt parser ("verify").
+ *
+ * Run with allocation profiling:
+ *   mvn -P benchmark test-compile exec:exec -Dbenchmark=JwtServiceBenchmark -Dbenchmark.args="-prof gc"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "change-this-to-a-very-long-random-string-at-least-64-characters-1234567890";
+
+    private JwtService jwtService;
+    private JwtService fastPathJwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtSigningKey key = JwtSigningKey.hmac("default", Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)));
+        JwtKeyProvider keyProvider = new JwtKeyProvider(new JwtKeySet(key, List.of(key)));
+        jwtService = new JwtService(keyProvider, 30, false);
+        fastPathJwtService = new JwtService(keyProvider, 30, true);
+
+        user = new User();
+        user.setUid(UUID.randomUUID());
+        user.setEmail("bench@example.com");
+
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public UUID verify() {
+        return jwtService.extractUidFromToken(token);
+    }
+
+    @Benchmark
+    public UUID verifyFastPath() {
+        return fastPathJwtService.extractUidFromToken(token);
+    }
+
+    @Benchmark
+    public String legacySign() {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .subject(user.getUid().toString())
+                .claim("email", user.getEmail())
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plusSeconds(30 * 60)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), Jwts.SIG.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public UUID legacyVerify() {
+        String subject = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload()
+                .getSubject();
+        return UUID.fromString(subject);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.rachelklein.userauth.benchmark;
+
+import com.example.rachelklein.userauth.security.MemoryBudgetPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Throughput and latency percentiles (p99 in the SampleTime output) of BCrypt vs Argon2id at several
+ * concurrency levels. Argon2id goes through the memory budget governor, so at high thread counts
+ * its latency includes the time spent waiting for budget.
+ *
+ *   mvn -P benchmark test-compile exec:exec -Dbenchmark=PasswordHashingBenchmark -Dbenchmark.args="-prof gc"
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "SecurePass123";
+
+    @Param({"bcrypt", "argon2id"})
+    public String algorithm;
+
+    @Param({"10"})
+    public int bcryptStrength;
+
+    @Param({"19456"})
+    public int argon2MemoryKib;
+
+    @Param({"256"})
+    public int argon2MemoryBudgetMib;
+
+    private PasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = switch (algorithm) {
+            case "bcrypt" -> new BCryptPasswordEncoder(bcryptStrength);
+            case "argon2id" -> new MemoryBudgetPasswordEncoder(
+                    new Argon2PasswordEncoder(16, 32, 1, argon2MemoryKib, 2),
+                    argon2MemoryKib, argon2MemoryBudgetMib * 1024, Long.MAX_VALUE, 1, new SimpleMeterRegistry());
+            default -> throw new IllegalArgumentException(algorithm);
+        };
+        hash = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean matches_1thread() {
+        return encoder.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean matches_4threads() {
+        return encoder.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean matches_16threads() {
+        return encoder.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public boolean matches_64threads() {
+        return encoder.matches(PASSWORD, hash);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.rachelklein.userauth.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Point lookup latency of a refresh token by plaintext VARCHAR(128) unique key (previous schema)
+ * vs by SHA-256 BINARY(32) unique key (current schema), on an H2 file database of `rows` tokens.
+ * Setup with 10M rows takes a few minutes and about 2 GB of disk under java.io.tmpdir.
+ *
+ *   mvn -P benchmark test-compile exec:exec -Dbenchmark=RefreshTokenLookupBenchmark
+ *   mvn -P benchmark test-compile exec:exec -Dbenchmark=RefreshTokenLookupBenchmark -Dbenchmark.args="-p rows=1000000"
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RefreshTokenLookupBenchmark {
+
+    private static final int SAMPLES = 4096;
+
+    @Param({"10000000"})
+    public int rows;
+
+    private Path directory;
+    private Connection connection;
+    private PreparedStatement byPlaintext;
+    private PreparedStatement byHash;
+
+    private final String[] sampleTokens = new String[SAMPLES];
+    private final byte[][] sampleHashes = new byte[SAMPLES][];
+
+    @Setup
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("refresh-token-bench");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("db") + ";CACHE_SIZE=262144", "sa", "");
+
+        try (Statement st = connection.createStatement()) {
+            // Tokens are the hex SHA-256 of the row number: random-looking and reproducible from Java.
+            st.execute("create table plaintext_tokens (id bigint primary key, token varchar(128) not null unique)");
+            st.execute("insert into plaintext_tokens select x, rawtohex(hash('SHA-256', stringtoutf8(cast(x as varchar)))) "
+                    + "from system_range(1, " + rows + ")");
+
+            st.execute("create table hashed_tokens (id bigint primary key, token_hash binary(32) not null unique)");
+            st.execute("insert into hashed_tokens select id, hash('SHA-256', stringtoutf8(token)) from plaintext_tokens");
+            st.execute("analyze");
+        }
+
+        MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        for (int i = 0; i < SAMPLES; i++) {
+            long x = ThreadLocalRandom.current().nextLong(1, rows + 1L);
+            sampleTokens[i] = HexFormat.of().formatHex(sha256.digest(Long.toString(x).getBytes(StandardCharsets.UTF_8)));
+            sampleHashes[i] = sha256.digest(sampleTokens[i].getBytes(StandardCharsets.US_ASCII));
+        }
+
+        byPlaintext = connection.prepareStatement("select id from plaintext_tokens where token = ?");
+        byHash = connection.prepareStatement("select id from hashed_tokens where token_hash = ?");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        connection.close();
+        try (var files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long lookupByPlaintext() throws SQLException {
+        byPlaintext.setString(1, sampleTokens[ThreadLocalRandom.current().nextInt(SAMPLES)]);
+        return single(byPlaintext);
+    }
+
+    @Benchmark
+    public long lookupByHash() throws SQLException {
+        byHash.setBytes(1, sampleHashes[ThreadLocalRandom.current().nextInt(SAMPLES)]);
+        return single(byHash);
+    }
+
+    private static long single(PreparedStatement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            if (!rs.next()) {
+                throw new IllegalStateException("token not found");
+            }
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.rachelklein.userauth.benchmark;
+
+import com.example.rachelklein.userauth.entity.UuidV7Generator;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Time to insert `rows` users keyed by random v4 vs time-ordered v7 UUIDs into an H2 file database, in batches
+ * committed every BATCH rows, as the users table does. After each iteration the primary key and table size
+ * (DISK_SPACE_USED) and the database file size are printed. 10M rows need a few GB under java.io.tmpdir.
+ *
+ *   mvn -P benchmark test-compile exec:exec -Dbenchmark=UuidPrimaryKeyInsertBenchmark
+ *   mvn -P benchmark test-compile exec:exec -Dbenchmark=UuidPrimaryKeyInsertBenchmark -Dbenchmark.args="-p rows=10000000"
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UuidPrimaryKeyInsertBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"v4", "v7"})
+    public String version;
+
+    private Path directory;
+    private Connection connection;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("uuid-pk-bench");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("db") + ";CACHE_SIZE=65536", "sa", "");
+        connection.setAutoCommit(false);
+        try (Statement st = connection.createStatement()) {
+            st.execute("create table users (uid uuid not null primary key, email varchar(255) not null)");
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("select disk_space_used('USERS')")) {
+            rs.next();
+            System.out.printf("%n%s, %d rows: users table + primary key %,d bytes", version, rows, rs.getLong(1));
+        }
+        connection.close();
+        System.out.printf(", database file %,d bytes%n", Files.size(directory.resolve("db.mv.db")));
+        try (var files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int insert() throws Exception {
+        boolean v7 = version.equals("v7");
+        try (PreparedStatement insert = connection.prepareStatement("insert into users (uid, email) values (?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                UUID uid = v7 ? UuidV7Generator.next() : UUID.randomUUID();
+                insert.setObject(1, uid);
+                insert.setString(2, "user" + i + "@example.com");
+                insert.addBatch();
+                if ((i + 1) % BATCH == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.rachelklein.userauth.config;
+
+import com.example.rachelklein.userauth.util.TokenService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LegacySchemaMigrationTest {
+
+    @Test
+    void plaintextRefreshTokens_shouldBeHashedWhenUpgradingFromInitialSchema() {
+        // arrange - a database still on the initial schema, holding plaintext tokens with identity ids
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:legacy-schema;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).target("1").load().migrate();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        UUID uid = UUID.randomUUID();
+        jdbcTemplate.update("""
+                insert into users (uid, email, password_hash, is_active, is_verified, registration_date)
+                values (?, 'legacy.user@example.com', 'hash', true, true, current_timestamp)
+                """, uid);
+
+        TokenService tokenService = new TokenService();
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            String token = tokenService.generateToken();
+            tokens.add(token);
+            jdbcTemplate.update("insert into refresh_tokens (token, expiry, user_uid) values (?, current_timestamp, ?)",
+                    token, uid);
+        }
+
+        // act
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        // assert
+        Integer plaintextColumns = jdbcTemplate.queryForObject("""
+                select count(*) from information_schema.columns
+                where table_name = 'REFRESH_TOKENS' and column_name = 'TOKEN'
+                """, Integer.class);
+        assertEquals(0, plaintextColumns);
+
+        for (int i : new int[]{0, 1234, 2499}) {
+            Long id = jdbcTemplate.queryForObject("select id from refresh_tokens where token_hash = ?",
+                    Long.class, (Object) tokenService.hash(tokens.get(i)));
+            assertEquals(i + 1, id);
+        }
+        assertEquals(2500, jdbcTemplate.queryForObject(
+                "select count(*) from refresh_tokens where device_id like 'legacy%'", Integer.class));
+        // One token per device since V7: the newest keeps 'legacy', the others become 'legacy#<id>'.
+        assertEquals("legacy#1", jdbcTemplate.queryForObject("select device_id from refresh_tokens where id = 1",
+                String.class));
+        assertEquals("legacy", jdbcTemplate.queryForObject("select device_id from refresh_tokens where id = 2500",
+                String.class));
+
+        // The first pooled block handed out after the upgrade starts above every legacy id.
+        Long next = jdbcTemplate.queryForObject("select next value for refresh_tokens_seq", Long.class);
+        assertEquals(2550, next);
+    }
+}
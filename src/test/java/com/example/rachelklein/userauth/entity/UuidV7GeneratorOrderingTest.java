@@ -0,0 +1,32 @@
+package com.example.rachelklein.userauth.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7GeneratorOrderingTest {
+
+    @Test
+    void next_manyInARow_shouldBeVersion7AndStrictlyIncreasing() {
+        // arrange
+        long before = System.currentTimeMillis();
+        UUID previous = UuidV7Generator.next();
+
+        // act / assert
+        for (int i = 0; i < 100_000; i++) {
+            UUID current = UuidV7Generator.next();
+
+            assertEquals(7, current.version());
+            assertEquals(2, current.variant());
+            assertTrue(Long.compareUnsigned(current.getMostSignificantBits(), previous.getMostSignificantBits()) > 0,
+                    previous + " should sort before " + current);
+            previous = current;
+        }
+
+        // Embedded timestamp is the wall clock, give or take counter carry.
+        long timestamp = previous.getMostSignificantBits() >>> 16;
+        assertTrue(timestamp >= before && timestamp <= System.currentTimeMillis() + 1000);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.rachelklein.userauth.integration;
+
+import com.example.rachelklein.userauth.entity.AccountToken;
+import com.example.rachelklein.userauth.entity.AccountTokenType;
+import com.example.rachelklein.userauth.entity.User;
+import com.example.rachelklein.userauth.repository.UserRepository;
+import com.example.rachelklein.userauth.service.AccountTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class AccountTokenConsumeAfterResendIntegrationTest {
+
+    @Autowired
+    private AccountTokenService accountTokenService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void consume_tokenLookedUpBeforeAResend_shouldFailAndLeaveTheNewTokenUsable() {
+        // arrange - a reset link is looked up, then a resend replaces it (same row, new hash)
+        User user = new User();
+        user.setEmail("resend.consume@example.com");
+        user.setPasswordHash("unused");
+        user.setIsVerified(true);
+        user.setIsActive(true);
+        user.setRegistrationDate(LocalDateTime.now());
+        user = userRepository.save(user);
+
+        String old = accountTokenService.issue(user.getUid(), AccountTokenType.PASSWORD_RESET, Duration.ofHours(1));
+        AccountToken found = accountTokenService.find(AccountTokenType.PASSWORD_RESET, old).orElseThrow();
+        String fresh = accountTokenService.issue(user.getUid(), AccountTokenType.PASSWORD_RESET, Duration.ofHours(1));
+
+        // act / assert - the stale token cannot be used, and did not take the new one with it
+        assertFalse(accountTokenService.consume(found));
+        AccountToken current = accountTokenService.find(AccountTokenType.PASSWORD_RESET, fresh).orElseThrow();
+        assertEquals(found.getId(), current.getId());
+        assertTrue(accountTokenService.consume(current));
+        assertTrue(accountTokenService.find(AccountTokenType.PASSWORD_RESET, fresh).isEmpty());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.rachelklein.userauth.integration;
+
+import com.example.rachelklein.userauth.entity.AccountTokenType;
+import com.example.rachelklein.userauth.entity.User;
+import com.example.rachelklein.userauth.repository.UserRepository;
+import com.example.rachelklein.userauth.service.AccountTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class AccountTokenIssueConcurrencyIntegrationTest {
+
+    private static final int CALLERS = 8;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private AccountTokenService accountTokenService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void simultaneousResetRequests_shouldAllSucceedAndLeaveOneToken() throws Exception {
+        // arrange
+        User user = new User();
+        user.setEmail("reset.race@example.com");
+        user.setPasswordHash("unused");
+        user.setIsVerified(true);
+        user.setIsActive(true);
+        user.setRegistrationDate(LocalDateTime.now());
+        user = userRepository.save(user);
+        UUID uid = user.getUid();
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                // act - every caller issues a reset token for the same user at once
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<String>> results = new ArrayList<>();
+                for (int i = 0; i < CALLERS; i++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return accountTokenService.issue(uid, AccountTokenType.PASSWORD_RESET, Duration.ofHours(1));
+                    }));
+                }
+                start.countDown();
+
+                // assert - nobody fails, and exactly one of the issued tokens survives
+                List<String> tokens = new ArrayList<>();
+                for (Future<String> result : results) {
+                    tokens.add(result.get());
+                }
+                long live = tokens.stream()
+                        .filter(token -> accountTokenService.find(AccountTokenType.PASSWORD_RESET, token).isPresent())
+                        .count();
+                assertEquals(1, live);
+                assertEquals(1, jdbcTemplate.queryForObject(
+                        "select count(*) from account_tokens where user_uid = ? and type = 'PASSWORD_RESET'",
+                        Integer.class, uid));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
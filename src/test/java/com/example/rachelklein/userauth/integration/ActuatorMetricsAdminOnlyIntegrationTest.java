@@ -0,0 +1,39 @@
+package com.example.rachelklein.userauth.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.admin.api-key=test-admin-key")
+@AutoConfigureMockMvc
+class ActuatorMetricsAdminOnlyIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void metrics_shouldNeedTheAdminKeyWhileHealthStaysPublic() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics/users.email-filter.lookups"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics/users.email-filter.lookups")
+                        .header("X-Admin-Api-Key", "wrong-key"))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(get("/actuator/metrics")
+                        .header("X-Admin-Api-Key", "test-admin-key"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/users.email-filter.lookups")
+                        .header("X-Admin-Api-Key", "test-admin-key"))
+                .andExpect(status().isOk());
+    }
+}
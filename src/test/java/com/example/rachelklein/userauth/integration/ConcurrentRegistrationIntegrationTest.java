@@ -0,0 +1,87 @@
+package com.example.rachelklein.userauth.integration;
+
+import com.example.rachelklein.userauth.dto.request.RegisterRequest;
+import com.example.rachelklein.userauth.dto.response.RegisterResponse;
+import com.example.rachelklein.userauth.exception.DuplicateEmailException;
+import com.example.rachelklein.userauth.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ConcurrentRegistrationIntegrationTest {
+
+    private static final int CALLERS = 8;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void simultaneousRegistrationsWithSameEmail_shouldCreateOneAccountAndRejectTheRest() throws Exception {
+        // arrange
+        String email = "registration.race@example.com";
+
+        // act - all callers register the same email at once
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<RegisterResponse>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < CALLERS; i++) {
+                RegisterRequest request = request(email, "Caller" + i);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return accountService.register(request);
+                }));
+            }
+            start.countDown();
+
+            // assert - every loser gets DuplicateEmailException, not a raw DataIntegrityViolationException
+            List<RegisterResponse> winners = new ArrayList<>();
+            for (Future<RegisterResponse> result : results) {
+                try {
+                    winners.add(result.get());
+                } catch (ExecutionException e) {
+                    assertInstanceOf(DuplicateEmailException.class, e.getCause());
+                }
+            }
+
+            assertEquals(1, winners.size());
+            assertEquals(1, jdbcTemplate.queryForObject("select count(*) from users where email = ?",
+                    Integer.class, email));
+            assertEquals(winners.get(0).getUid(), jdbcTemplate.queryForObject(
+                    "select uid from users where email = ?", UUID.class, email));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // A later attempt is refused too.
+        assertThrows(DuplicateEmailException.class, () -> accountService.register(request(email, "Late")));
+    }
+
+    private static RegisterRequest request(String email, String firstName) {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail(email);
+        request.setPassword("SecurePass123");
+
+        RegisterRequest.Profile profile = new RegisterRequest.Profile();
+        profile.setFirstName(firstName);
+        profile.setLastName("Racer");
+        request.setProfile(profile);
+        return request;
+    }
+}
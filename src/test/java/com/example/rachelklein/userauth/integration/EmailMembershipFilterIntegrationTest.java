@@ -0,0 +1,83 @@
+package com.example.rachelklein.userauth.integration;
+
+import com.example.rachelklein.userauth.entity.UuidV7Generator;
+import com.example.rachelklein.userauth.service.EmailMembershipFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class EmailMembershipFilterIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmailMembershipFilter emailMembershipFilter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void filter_shouldTrackRegistrationsRejectUnknownEmailsAndPickUpOtherWritersOnRebuild() throws Exception {
+        // Registered through the API: visible as soon as the insert commits, in any letter case.
+        mockMvc.perform(post("/api/accounts/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "email": "Bloom.Member@example.com",
+                                  "password": "SecurePass123",
+                                  "profile": { "firstName": "Bloom", "lastName": "Member" }
+                                }
+                                """))
+                .andExpect(status().isOk());
+        assertTrue(emailMembershipFilter.mightContain(" bloom.member@EXAMPLE.com"));
+
+        // Unknown email: refused by the filter, no database lookup.
+        double absentBefore = meterRegistry.counter("users.email-filter.lookups", "result", "absent").count();
+        mockMvc.perform(post("/api/accounts/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                { "loginID": "bloom.stranger@example.com", "password": "SecurePass123" }
+                                """))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/accounts/password/reset-request")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                { "email": "bloom.stranger@example.com" }
+                                """))
+                .andExpect(status().isNotFound());
+        assertEquals(2.0, meterRegistry.counter("users.email-filter.lookups", "result", "absent").count()
+                - absentBefore);
+
+        // A plain JDBC insert is not seen until the next rebuild.
+        jdbcTemplate.update("""
+                insert into users (uid, email, password_hash, is_verified, is_active, registration_date)
+                values (?, 'bloom.jdbc@example.com', 'unused', false, true, ?)
+                """, UuidV7Generator.next(), Timestamp.valueOf(LocalDateTime.now()));
+        assertFalse(emailMembershipFilter.mightContain("bloom.jdbc@example.com"));
+
+        emailMembershipFilter.rebuild();
+
+        assertTrue(emailMembershipFilter.mightContain("bloom.jdbc@example.com"));
+        assertTrue(emailMembershipFilter.mightContain("bloom.member@example.com"));
+        // Once when the application became ready, once here.
+        assertTrue(meterRegistry.get("users.email-filter.rebuild").timer().count() >= 2);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.rachelklein.userauth.integration;
+
+import com.example.rachelklein.userauth.entity.UuidV7Generator;
+import com.example.rachelklein.userauth.service.EmailMembershipFilter;
+import com.example.rachelklein.userauth.service.EmailNormalizationBackfill;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class EmailNormalizationBackfillIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmailNormalizationBackfill backfill;
+
+    @Autowired
+    private EmailMembershipFilter emailMembershipFilter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void backfill_shouldMakeLegacyRowsCaseInsensitiveAndLeaveConflictsUnfilled() throws Exception {
+        // Rows as they were before V5: no normalized email. The last two differ only in case.
+        String hash = passwordEncoder.encode("SecurePass123");
+        UUID mixedCase = insertLegacy("Backfill.Alice@Example.com", hash);
+        UUID first = insertLegacy("backfill.bob@example.com", hash);
+        UUID second = insertLegacy("Backfill.Bob@example.com", hash);
+        emailMembershipFilter.rebuild();
+
+        // Before the backfill only the exact spelling finds them.
+        login("Backfill.Alice@Example.com").andExpect(status().isOk());
+        login("backfill.alice@example.com").andExpect(status().isUnauthorized());
+
+        double conflictsBefore = meterRegistry.counter("users.email-backfill.rows", "outcome", "conflict").count();
+        backfill.backfill();
+
+        assertEquals("backfill.alice@example.com", normalizedEmail(mixedCase));
+        assertEquals("backfill.bob@example.com", normalizedEmail(first));
+        assertNull(normalizedEmail(second));
+        assertEquals(1.0, meterRegistry.counter("users.email-backfill.rows", "outcome", "conflict").count()
+                - conflictsBefore);
+
+        // Any spelling now reaches the backfilled row, even with a failed lookup cached from before.
+        login("backfill.alice@example.com").andExpect(status().isOk());
+        login(" BACKFILL.ALICE@example.com").andExpect(status().isOk());
+        // The account holding the normalized email wins, whatever the spelling.
+        login("Backfill.Bob@example.com").andExpect(status().isOk())
+                .andExpect(jsonPath("$.UID").value(first.toString()));
+
+        // Registration is refused for any spelling of a backfilled email.
+        mockMvc.perform(post("/api/accounts/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "email": "BACKFILL.alice@example.com",
+                                  "password": "SecurePass123",
+                                  "profile": { "firstName": "Alice", "lastName": "Again" }
+                                }
+                                """))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("DUPLICATE_EMAIL"));
+    }
+
+    private UUID insertLegacy(String email, String passwordHash) {
+        UUID uid = UuidV7Generator.next();
+        jdbcTemplate.update("""
+                insert into users (uid, email, password_hash, is_verified, is_active, registration_date)
+                values (?, ?, ?, true, true, ?)
+                """, uid, email, passwordHash, Timestamp.valueOf(LocalDateTime.now()));
+        return uid;
+    }
+
+    private String normalizedEmail(UUID uid) {
+        return jdbcTemplate.queryForObject("select email_normalized from users where uid = ?", String.class, uid);
+    }
+
+    private ResultActions login(String loginId) throws Exception {
+        return mockMvc.perform(post("/api/accounts/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"loginID\": \"" + loginId + "\", \"password\": \"SecurePass123\" }"));
+    }
+}
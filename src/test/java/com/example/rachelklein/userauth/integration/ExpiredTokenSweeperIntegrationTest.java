@@ -0,0 +1,93 @@
+package com.example.rachelklein.userauth.integration;
+
+import com.example.rachelklein.userauth.entity.AccountTokenType;
+import com.example.rachelklein.userauth.entity.User;
+import com.example.rachelklein.userauth.repository.UserRepository;
+import com.example.rachelklein.userauth.service.AccountTokenService;
+import com.example.rachelklein.userauth.service.ExpiredTokenSweeper;
+import com.example.rachelklein.userauth.service.RefreshTokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Small chunks so the keyset walk spans several chunks; no throttling, and no timer-driven sweep during the test.
+@SpringBootTest(properties = {
+        "app.sweeper.chunk-size=3",
+        "app.sweeper.max-rows-per-second=0",
+        "app.sweeper.interval-millis=3600000",
+        "app.sessions.max-per-user=100"
+})
+class ExpiredTokenSweeperIntegrationTest {
+
+    @Autowired
+    private ExpiredTokenSweeper sweeper;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private AccountTokenService accountTokenService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void sweep_shouldPurgeOnlyExpiredTokens() {
+        // arrange
+        LocalDateTime now = LocalDateTime.now();
+
+        User user = new User();
+        user.setEmail("sweeper.user@example.com");
+        user.setPasswordHash("unused");
+        user.setRegistrationDate(now);
+        user = userRepository.save(user);
+
+        accountTokenService.issue(user.getUid(), AccountTokenType.VERIFICATION, Duration.ofHours(-1));
+        String liveReset = accountTokenService.issue(user.getUid(), AccountTokenType.PASSWORD_RESET, Duration.ofHours(1));
+
+        for (int i = 0; i < 10; i++) {
+            String issued = refreshTokenService.issue(user.getUid(), "device-" + i);
+            if (i == 0) {
+                refreshTokenService.rotate(issued);
+            }
+        }
+        // Expire seven of them, several sharing the same expiry to exercise the keyset tie-breaker.
+        jdbcTemplate.update("update refresh_tokens set expiry = ? where user_uid = ? and device_id < 'device-7'",
+                now.minusDays(1).withNano(0), user.getUid());
+        // And the hash device-0 rotated away, which expires with its family.
+        jdbcTemplate.update("""
+                update refresh_token_retired_hashes set expiry = ?
+                where family_id in (select family_id from refresh_tokens where user_uid = ?)
+                """, now.minusDays(1).withNano(0), user.getUid());
+
+        double purgedBefore = meterRegistry.counter("tokens.sweeper.purged", "kind", "refresh").count();
+
+        // act
+        sweeper.sweep();
+
+        // assert
+        assertEquals(3, refreshTokenService.activeSessions(user.getUid()).size());
+        assertEquals(3, jdbcTemplate.queryForObject("select count(*) from refresh_tokens where user_uid = ?",
+                Integer.class, user.getUid()));
+        assertEquals(7.0, meterRegistry.counter("tokens.sweeper.purged", "kind", "refresh").count() - purgedBefore);
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from refresh_token_retired_hashes where expiry < ?", Integer.class, now));
+
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from account_tokens where user_uid = ?",
+                Integer.class, user.getUid()));
+        assertTrue(accountTokenService.find(AccountTokenType.PASSWORD_RESET, liveReset).isPresent());
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.rachelklein.userauth.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.security.Key;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "app.jwt.algorithm=ES256")
+@AutoConfigureMockMvc
+class JwksOfflineVerificationIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void es256SessionToken_shouldVerifyOfflineAgainstPublishedJwks() throws Exception {
+        String email = "jwks.user@example.com";
+        String password = "SecurePass123";
+
+        // REGISTER + VERIFY + LOGIN
+        String registerJson = """
+                {
+                  "email": "%s",
+                  "password": "%s",
+                  "profile": {
+                    "firstName": "John",
+                    "lastName": "Doe"
+                  }
+                }
+                """.formatted(email, password);
+
+        String registerResponse = mockMvc.perform(post("/api/accounts/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(registerJson))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String verificationToken = objectMapper.readTree(registerResponse).get("verificationToken").asText();
+
+        mockMvc.perform(post("/api/accounts/verify")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                { "token": "%s", "email": "%s" }
+                                """.formatted(verificationToken, email)))
+                .andExpect(status().isOk());
+
+        String loginResponse = mockMvc.perform(post("/api/accounts/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                { "loginID": "%s", "password": "%s" }
+                                """.formatted(email, password)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String sessionToken = objectMapper.readTree(loginResponse).get("sessionToken").asText();
+        String uid = objectMapper.readTree(loginResponse).get("UID").asText();
+
+        // JWKS is public and cacheable.
+        String jwksJson = mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("max-age")))
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.keys[0].kty", is("EC")))
+                .andExpect(jsonPath("$.keys[0].alg", is("ES256")))
+                .andExpect(jsonPath("$.keys[0].kid", not(emptyOrNullString())))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        // A downstream service verifies the token using only the JWKS document.
+        JwkSet jwkSet = Jwks.setParser().build().parse(jwksJson);
+
+        Claims claims = Jwts.parser()
+                .keyLocator(header -> {
+                    String kid = ((ProtectedHeader) header).getKeyId();
+                    return jwkSet.getKeys().stream()
+                            .filter(jwk -> jwk.getId().equals(kid))
+                            .map(jwk -> (Key) ((PublicJwk<?>) jwk).toKey())
+                            .findFirst()
+                            .orElseThrow();
+                })
+                .build()
+                .parseSignedClaims(sessionToken)
+                .getPayload();
+
+        assertEquals(uid, claims.getSubject());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.rachelklein.userauth.integration;
+
+import com.example.rachelklein.userauth.entity.User;
+import com.example.rachelklein.userauth.repository.UserRepository;
+import com.example.rachelklein.userauth.service.LastLoginWriteBuffer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Timer flushes are pushed far out so the test controls when the buffer is written.
+@SpringBootTest(properties = "app.users.last-login.flush-interval-millis=3600000")
+@AutoConfigureMockMvc
+class LastLoginWriteBehindIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private LastLoginWriteBuffer lastLoginWriteBuffer;
+
+    @Test
+    void login_shouldBufferLastLoginAndWriteItOnFlush() throws Exception {
+        String email = "last.login.user@example.com";
+        String password = "SecurePass123";
+
+        User user = new User();
+        user.setEmail(email);
+        user.setPasswordHash(passwordEncoder.encode(password));
+        user.setIsVerified(true);
+        user.setIsActive(true);
+        user.setRegistrationDate(LocalDateTime.now());
+        user = userRepository.save(user);
+
+        String loginJson = """
+                {
+                  "loginID": "%s",
+                  "password": "%s"
+                }
+                """.formatted(email, password);
+
+        String loginResponse = mockMvc.perform(post("/api/accounts/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(loginJson))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String sessionToken = objectMapper.readTree(loginResponse).get("sessionToken").asText();
+
+        // Not written yet, but already visible through /info.
+        assertNull(userRepository.findById(user.getUid()).orElseThrow().getLastLoginDate());
+
+        mockMvc.perform(get("/api/accounts/info")
+                        .header("Authorization", "Bearer " + sessionToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastLogin", notNullValue()));
+
+        // Flush writes it, and later entity saves do not overwrite it.
+        LocalDateTime buffered = lastLoginWriteBuffer.pending(user.getUid());
+        assertTrue(lastLoginWriteBuffer.flush() >= 1);
+        assertNull(lastLoginWriteBuffer.pending(user.getUid()));
+
+        User stored = userRepository.findById(user.getUid()).orElseThrow();
+        stored.setFirstName("Jane");
+        userRepository.save(stored);
+
+        LocalDateTime lastLogin = userRepository.findById(user.getUid()).orElseThrow().getLastLoginDate();
+        assertNotNull(lastLogin);
+        assertEquals(buffered.withNano(0), lastLogin.withNano(0));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.rachelklein.userauth.integration;
+
+import com.example.rachelklein.userauth.entity.User;
+import com.example.rachelklein.userauth.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.sessions.max-per-user=2")
+@AutoConfigureMockMvc
+class MultiDeviceSessionsIntegrationTest {
+
+    private static final String EMAIL = "multi.device.user@example.com";
+    private static final String PASSWORD = "SecurePass123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void loginsOnSeveralDevices_shouldKeepSessionsPerDeviceAndEvictOldestBeyondCap() throws Exception {
+        User user = new User();
+        user.setEmail(EMAIL);
+        user.setPasswordHash(passwordEncoder.encode(PASSWORD));
+        user.setIsVerified(true);
+        user.setIsActive(true);
+        user.setRegistrationDate(LocalDateTime.now());
+        userRepository.save(user);
+
+        JsonNode laptop = login("laptop");
+        JsonNode phone = login("phone");
+
+        // Logging in on the phone did not end the laptop session (refresh tokens are single-use).
+        String laptopToken = refreshedToken(laptop.get("refreshToken").asText());
+        String phoneToken = refreshedToken(phone.get("refreshToken").asText());
+
+        // A third device exceeds the cap of two: the oldest session (laptop) is evicted.
+        JsonNode tablet = login("tablet");
+        refresh(laptopToken).andExpect(status().isUnauthorized());
+        refresh(phoneToken).andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/accounts/sessions")
+                        .header("Authorization", "Bearer " + tablet.get("sessionToken").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sessions", hasSize(2)))
+                .andExpect(jsonPath("$.sessions[*].deviceId", containsInAnyOrder("phone", "tablet")));
+
+        // Without a deviceId, one is generated and returned.
+        mockMvc.perform(post("/api/accounts/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "loginID": "%s",
+                                  "password": "%s"
+                                }
+                                """.formatted(EMAIL, PASSWORD)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deviceId", not(emptyOrNullString())));
+    }
+
+    private JsonNode login(String deviceId) throws Exception {
+        String loginJson = """
+                {
+                  "loginID": "%s",
+                  "password": "%s",
+                  "deviceId": "%s"
+                }
+                """.formatted(EMAIL, PASSWORD, deviceId);
+
+        String response = mockMvc.perform(post("/api/accounts/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(loginJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deviceId", is(deviceId)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        return objectMapper.readTree(response);
+    }
+
+    private String refreshedToken(String refreshToken) throws Exception {
+        String response = refresh(refreshToken)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        return objectMapper.readTree(response).get("refreshToken").asText();
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/api/accounts/token/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                          "refreshToken": "%s"
+                        }
+                        """.formatted(refreshToken)));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.rachelklein.userauth.integration;
+
+import com.example.rachelklein.userauth.entity.User;
+import com.example.rachelklein.userauth.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PasswordRehashOnLoginIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void login_withLegacyWeakHash_shouldUpgradeHashDuringLogin() throws Exception {
+        String email = "legacy.hash.user@example.com";
+        String password = "SecurePass123";
+
+        // A hash from before the {id} prefix and calibration existed.
+        String legacyHash = new BCryptPasswordEncoder(4).encode(password);
+
+        User user = new User();
+        user.setEmail(email);
+        user.setPasswordHash(legacyHash);
+        user.setIsVerified(true);
+        user.setIsActive(true);
+        user.setRegistrationDate(LocalDateTime.now());
+        user = userRepository.save(user);
+
+        String loginJson = """
+                {
+                  "loginID": "%s",
+                  "password": "%s"
+                }
+                """.formatted(email, password);
+
+        mockMvc.perform(post("/api/accounts/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(loginJson))
+                .andExpect(status().isOk());
+
+        // The upgrade is done by the time the login returns.
+        String hash = userRepository.findById(user.getUid()).orElseThrow().getPasswordHash();
+
+        assertTrue(hash.startsWith("{bcrypt}"), "hash should have been upgraded, was " + hash);
+        assertFalse(passwordEncoder.upgradeEncoding(hash));
+        assertTrue(passwordEncoder.matches(password, hash));
+    }
+}
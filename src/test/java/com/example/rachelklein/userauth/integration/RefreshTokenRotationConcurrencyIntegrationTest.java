@@ -0,0 +1,106 @@
+package com.example.rachelklein.userauth.integration;
+
+import com.example.rachelklein.userauth.entity.User;
+import com.example.rachelklein.userauth.exception.InvalidTokenException;
+import com.example.rachelklein.userauth.repository.UserRepository;
+import com.example.rachelklein.userauth.service.RefreshTokenService;
+import com.example.rachelklein.userauth.service.RotatedRefreshToken;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class RefreshTokenRotationConcurrencyIntegrationTest {
+
+    private static final int CALLERS = 8;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void simultaneousRefreshesWithSameToken_shouldYieldExactlyOneWinner() throws Exception {
+        // arrange
+        User user = new User();
+        user.setEmail("rotation.race@example.com");
+        user.setPasswordHash("unused");
+        user.setIsVerified(true);
+        user.setIsActive(true);
+        user.setRegistrationDate(LocalDateTime.now());
+        user = userRepository.save(user);
+
+        String refreshToken = refreshTokenService.issue(user.getUid(), "laptop");
+
+        // act - all callers present the same token at once
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<RotatedRefreshToken>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return refreshTokenService.rotate(refreshToken);
+                }));
+            }
+            start.countDown();
+
+            // assert
+            List<RotatedRefreshToken> winners = new ArrayList<>();
+            for (Future<RotatedRefreshToken> result : results) {
+                try {
+                    winners.add(result.get());
+                } catch (ExecutionException e) {
+                    assertInstanceOf(InvalidTokenException.class, e.getCause());
+                }
+            }
+
+            assertEquals(1, winners.size());
+            assertEquals(user.getUid(), winners.get(0).uid());
+            assertEquals(user.getEmail(), winners.get(0).email());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // The losers replayed a rotated-away token, so the session it was rotated into is revoked too.
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate(refreshToken));
+        assertTrue(refreshTokenService.activeSessions(user.getUid()).isEmpty());
+    }
+
+    @Test
+    void replayOfAnyRetiredToken_shouldRevokeTheWholeFamily() {
+        // arrange - A -> B -> C on one device, plus an unrelated session on another
+        User user = new User();
+        user.setEmail("rotation.family@example.com");
+        user.setPasswordHash("unused");
+        user.setIsVerified(true);
+        user.setIsActive(true);
+        user.setRegistrationDate(LocalDateTime.now());
+        user = userRepository.save(user);
+
+        String a = refreshTokenService.issue(user.getUid(), "laptop");
+        String other = refreshTokenService.issue(user.getUid(), "phone");
+        String b = refreshTokenService.rotate(a).refreshToken();
+        String c = refreshTokenService.rotate(b).refreshToken();
+
+        // act - replay the oldest token, two rotations back
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate(a));
+
+        // assert - the live token of that family is gone, the other device's session is not
+        assertThrows(InvalidTokenException.class, () -> refreshTokenService.rotate(c));
+        assertEquals(1, refreshTokenService.activeSessions(user.getUid()).size());
+        assertNotNull(refreshTokenService.rotate(other).refreshToken());
+    }
+}
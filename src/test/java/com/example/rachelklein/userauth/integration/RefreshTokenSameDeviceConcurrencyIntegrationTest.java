@@ -0,0 +1,75 @@
+package com.example.rachelklein.userauth.integration;
+
+import com.example.rachelklein.userauth.entity.User;
+import com.example.rachelklein.userauth.repository.UserRepository;
+import com.example.rachelklein.userauth.service.RefreshTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class RefreshTokenSameDeviceConcurrencyIntegrationTest {
+
+    private static final int CALLERS = 8;
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void simultaneousLoginsFromOneDevice_shouldAllSucceedAndLeaveOneSession() throws Exception {
+        // arrange
+        User user = new User();
+        user.setEmail("device.race@example.com");
+        user.setPasswordHash("unused");
+        user.setIsVerified(true);
+        user.setIsActive(true);
+        user.setRegistrationDate(LocalDateTime.now());
+        user = userRepository.save(user);
+        UUID uid = user.getUid();
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                // act - every caller logs in from the same device at once
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<String>> results = new ArrayList<>();
+                for (int i = 0; i < CALLERS; i++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return refreshTokenService.issue(uid, "laptop");
+                    }));
+                }
+                start.countDown();
+
+                // assert - nobody fails, and the device is left with a single refresh token
+                for (Future<String> result : results) {
+                    assertNotNull(result.get());
+                }
+                assertEquals(1, jdbcTemplate.queryForObject(
+                        "select count(*) from refresh_tokens where user_uid = ? and device_id = 'laptop'",
+                        Integer.class, uid));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
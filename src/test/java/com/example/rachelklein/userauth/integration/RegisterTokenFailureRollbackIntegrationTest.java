@@ -0,0 +1,70 @@
+package com.example.rachelklein.userauth.integration;
+
+import com.example.rachelklein.userauth.dto.request.RegisterRequest;
+import com.example.rachelklein.userauth.entity.AccountTokenType;
+import com.example.rachelklein.userauth.service.AccountService;
+import com.example.rachelklein.userauth.service.AccountTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+
+@SpringBootTest
+class RegisterTokenFailureRollbackIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private AccountTokenService accountTokenService;
+
+    @Test
+    void register_verificationTokenInsertFails_shouldLeaveNoAccountAndAllowRetry() {
+        // arrange
+        String email = "token.failure@example.com";
+        doThrow(new DataAccessResourceFailureException("account_tokens unavailable"))
+                .when(accountTokenService).issue(any(UUID.class), eq(AccountTokenType.VERIFICATION),
+                        any(Duration.class));
+
+        // act - the token insert fails after the user row was flushed
+        assertThrows(DataAccessResourceFailureException.class, () -> accountService.register(request(email)));
+
+        // assert - the user row went with it
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from users where email = ?",
+                Integer.class, email));
+
+        // act - once tokens can be issued again, the same email registers normally
+        reset(accountTokenService);
+        UUID uid = accountService.register(request(email)).getUid();
+
+        // assert
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from account_tokens where user_uid = ?",
+                Integer.class, uid));
+    }
+
+    private static RegisterRequest request(String email) {
+        RegisterRequest request = new RegisterRequest();
+        request.setEmail(email);
+        request.setPassword("SecurePass123");
+
+        RegisterRequest.Profile profile = new RegisterRequest.Profile();
+        profile.setFirstName("Token");
+        profile.setLastName("Failure");
+        request.setProfile(profile);
+        return request;
+    }
+}
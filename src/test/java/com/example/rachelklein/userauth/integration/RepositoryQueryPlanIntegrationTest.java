@@ -0,0 +1,115 @@
+package com.example.rachelklein.userauth.integration;
+
+import com.example.rachelklein.userauth.entity.AccountTokenType;
+import com.example.rachelklein.userauth.repository.AccountTokenRepository;
+import com.example.rachelklein.userauth.repository.RefreshTokenRepository;
+import com.example.rachelklein.userauth.repository.UserRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.rachelklein.userauth.integration.RepositoryQueryPlanIntegrationTest$CapturingInspector",
+        "app.sweeper.enabled=false"
+})
+class RepositoryQueryPlanIntegrationTest {
+
+    private static final List<String> captured = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private AccountTokenRepository accountTokenRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Map<String, List<String>> sqlByQuery = new LinkedHashMap<>();
+
+    @Test
+    void repositoryQueries_shouldNotScanWholeTables() {
+        UUID uid = UUID.randomUUID();
+        byte[] hash = new byte[32];
+
+        // Distinct emails, so no call is answered from a result cached by an earlier one.
+        run("findByEmail", () -> userRepository.findByEmail("plan1@example.com"));
+        run("findByEmailNormalized", () -> userRepository.findByEmailNormalized("plan2@example.com"));
+        run("findByLegacyEmail", () -> userRepository.findByLegacyEmail("plan3@example.com"));
+        run("findLoginViewByEmail", () -> userRepository.findLoginViewByEmail("plan4@example.com"));
+        run("findLoginViewByEmailNormalized", () -> userRepository.findLoginViewByEmailNormalized("plan5@example.com"));
+        run("findLegacyLoginViewByEmail", () -> userRepository.findLegacyLoginViewByEmail("plan6@example.com"));
+        run("findInfoViewByUid", () -> userRepository.findInfoViewByUid(uid));
+        run("updatePasswordHashIfUnchanged", () -> userRepository.updatePasswordHashIfUnchanged(uid, "old", "new"));
+        run("updatePasswordHash", () -> userRepository.updatePasswordHash(uid, "new"));
+        run("markVerified", () -> userRepository.markVerified(uid));
+
+        run("findByTokenHash", () -> refreshTokenRepository.findByTokenHash(hash));
+        run("deleteByFamilyId", () -> refreshTokenRepository.deleteByFamilyId(uid));
+        run("deleteForNewSession", () -> refreshTokenRepository.deleteForNewSession(uid, "device", 4));
+        run("findByUserUidAndExpiryAfterOrderByExpiryDesc",
+                () -> refreshTokenRepository.findByUserUidAndExpiryAfterOrderByExpiryDesc(uid, LocalDateTime.now()));
+
+        run("findByTokenHashAndType",
+                () -> accountTokenRepository.findByTokenHashAndType(hash, AccountTokenType.PASSWORD_RESET));
+        run("consume", () -> accountTokenRepository.consume(1L, hash));
+
+        // A query added to either repository must be added here too.
+        Set<String> declared = new TreeSet<>();
+        for (Class<?> repository : List.of(UserRepository.class, RefreshTokenRepository.class,
+                AccountTokenRepository.class)) {
+            Arrays.stream(repository.getDeclaredMethods()).map(Method::getName).forEach(declared::add);
+        }
+        assertEquals(declared, new TreeSet<>(sqlByQuery.keySet()));
+
+        List<String> scans = new ArrayList<>();
+        sqlByQuery.forEach((query, statements) -> {
+            assertTrue(!statements.isEmpty(), query + " ran no SQL");
+            for (String sql : statements) {
+                String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+                if (plan.contains(".tableScan")) {
+                    scans.add(query + ":\n" + plan);
+                }
+            }
+        });
+        assertTrue(scans.isEmpty(), () -> "Full table scans:\n" + String.join("\n\n", scans));
+    }
+
+    private void run(String query, Runnable call) {
+        captured.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            call.run();
+            status.setRollbackOnly();
+        });
+        sqlByQuery.put(query, captured.stream()
+                .filter(sql -> !sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("insert"))
+                .collect(Collectors.toList()));
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            captured.add(sql);
+            return sql;
+        }
+    }
+}
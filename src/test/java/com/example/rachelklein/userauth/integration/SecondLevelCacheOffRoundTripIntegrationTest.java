@@ -0,0 +1,24 @@
+package com.example.rachelklein.userauth.integration;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "app.users.info-cache.ttl-seconds=0",
+        "app.users.last-login.flush-interval-millis=3600000"
+})
+class SecondLevelCacheOffRoundTripIntegrationTest extends SecondLevelCacheRoundTrips {
+
+    // SELECT of the user, DELETE + INSERT of the refresh token.
+    @Override
+    protected long expectedLoginStatements() {
+        return 3;
+    }
+
+    @Override
+    protected long expectedInfoStatements() {
+        return 1;
+    }
+}
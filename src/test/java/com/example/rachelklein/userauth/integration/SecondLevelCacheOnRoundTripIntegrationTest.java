@@ -0,0 +1,23 @@
+package com.example.rachelklein.userauth.integration;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.users.info-cache.ttl-seconds=0",
+        "app.users.last-login.flush-interval-millis=3600000"
+})
+class SecondLevelCacheOnRoundTripIntegrationTest extends SecondLevelCacheRoundTrips {
+
+    // DELETE + INSERT of the refresh token; the user lookup is a query cache hit.
+    @Override
+    protected long expectedLoginStatements() {
+        return 2;
+    }
+
+    // The projection is not query-cached; UserInfoCache (disabled here) is what fronts /info.
+    @Override
+    protected long expectedInfoStatements() {
+        return 1;
+    }
+}
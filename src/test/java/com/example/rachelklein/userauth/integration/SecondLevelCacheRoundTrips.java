@@ -0,0 +1,99 @@
+package com.example.rachelklein.userauth.integration;
+
+import com.example.rachelklein.userauth.entity.User;
+import com.example.rachelklein.userauth.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Database round trips of a repeated login and a repeated /info call, with Hibernate's second-level and query
+// caches on (SecondLevelCacheOnRoundTripIntegrationTest) and off (SecondLevelCacheOffRoundTripIntegrationTest).
+// Subclasses disable the /info snapshot cache and the last-login flush, so only Hibernate's caches differ.
+@AutoConfigureMockMvc
+abstract class SecondLevelCacheRoundTrips {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    protected abstract long expectedLoginStatements();
+
+    protected abstract long expectedInfoStatements();
+
+    @Test
+    void repeatedLoginAndInfo_shouldRunExpectedStatements() throws Exception {
+        String email = getClass().getSimpleName().toLowerCase() + "@example.com";
+        String password = "SecurePass123";
+
+        User user = new User();
+        user.setEmail(email);
+        user.setPasswordHash(passwordEncoder.encode(password));
+        user.setIsVerified(true);
+        user.setIsActive(true);
+        user.setRegistrationDate(LocalDateTime.now());
+        userRepository.save(user);
+
+        // Warm up: first login and /info populate whatever caches are enabled.
+        String sessionToken = login(email, password);
+        info(sessionToken);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        login(email, password);
+        long loginStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        info(sessionToken);
+        long infoStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(expectedLoginStatements(), loginStatements, "statements per login");
+        assertEquals(expectedInfoStatements(), infoStatements, "statements per /info");
+    }
+
+    private String login(String email, String password) throws Exception {
+        String response = mockMvc.perform(post("/api/accounts/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "loginID": "%s",
+                                  "password": "%s",
+                                  "deviceId": "harness"
+                                }
+                                """.formatted(email, password)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("sessionToken").asText();
+    }
+
+    private void info(String sessionToken) throws Exception {
+        mockMvc.perform(get("/api/accounts/info")
+                        .header("Authorization", "Bearer " + sessionToken))
+                .andExpect(status().isOk());
+    }
+}
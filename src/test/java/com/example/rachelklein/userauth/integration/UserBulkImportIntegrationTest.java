@@ -0,0 +1,106 @@
+package com.example.rachelklein.userauth.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Batches of two, so in-input duplicates, duplicates of earlier batches and a partial last batch all occur.
+@SpringBootTest(properties = {
+        "app.admin.api-key=test-admin-key",
+        "app.users.import.batch-size=2"
+})
+@AutoConfigureMockMvc
+class UserBulkImportIntegrationTest {
+
+    private static final String KEY_HEADER = "X-Admin-Api-Key";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void importUsers_csvAndNdjson_shouldInsertValidRowsReportRejectsAndAllowLogin() throws Exception {
+        String legacyHash = new BCryptPasswordEncoder(4).encode("Hashed1pass");
+        String csv = """
+                email,password,passwordHash,firstName,lastName,birthDate,verified
+                import.plain@example.com,Legacy1pass,,Ada,Lovelace,1990-01-15,true
+                import.hashed@example.com,,%s,Grace,Hopper,,true
+                import.dup@example.com,Dup1pass,,First,Row,,true
+                import.dup@example.com,Dup2pass,,Second,Row,,true
+                import.plain@example.com,Again1pass,,Ada,Again,,true
+                not-an-email,Some1pass,,No,Email,,true
+                import.both@example.com,Both1pass,%s,Both,Given,,true
+                import.quoted@example.com,Quoted1pass,,"Smith, \"\"Jr.\"\"",Quoted,,false
+                """.formatted(legacyHash, legacyHash);
+
+        // A failed login first, so its empty result is in the query cache when the import lands.
+        mockMvc.perform(post("/api/accounts/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(login("import.plain@example.com", "Legacy1pass")))
+                .andExpect(status().isUnauthorized());
+
+        // No key, no import.
+        mockMvc.perform(post("/api/admin/users/import").contentType("text/csv").content(csv))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(post("/api/admin/users/import")
+                        .header(KEY_HEADER, "test-admin-key")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(4))
+                .andExpect(jsonPath("$.rejected").value(4))
+                .andExpect(jsonPath("$.rejects[*].line", contains(5, 6, 7, 8)))
+                .andExpect(jsonPath("$.rejects[0].reason").value("Duplicate email in input"))
+                .andExpect(jsonPath("$.rejects[1].reason").value("Email already exists"))
+                .andExpect(jsonPath("$.rejects[2].reason").value("Invalid email"));
+
+        String ndjson = """
+                {"email":"import.json@example.com","password":"Json1pass","firstName":"Json","verified":true}
+                {"email":
+                """;
+        mockMvc.perform(post("/api/admin/users/import")
+                        .header(KEY_HEADER, "test-admin-key")
+                        .contentType("application/x-ndjson")
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejects[0].line").value(2));
+
+        // Imported accounts log in with their plaintext and their pre-hashed passwords.
+        mockMvc.perform(post("/api/accounts/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(login("import.plain@example.com", "Legacy1pass")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.profile.lastName").value("Lovelace"));
+        mockMvc.perform(post("/api/accounts/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(login("import.hashed@example.com", "Hashed1pass")))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/accounts/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(login("import.json@example.com", "Json1pass")))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/accounts/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(login("import.quoted@example.com", "Quoted1pass")))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.errorCode").value("ACCOUNT_NOT_VERIFIED"));
+    }
+
+    private static String login(String email, String password) {
+        return """
+                {
+                  "loginID": "%s",
+                  "password": "%s"
+                }
+                """.formatted(email, password);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.rachelklein.userauth.integration;
+
+import com.example.rachelklein.userauth.entity.UuidV7Generator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Fetch size below the row count, so the cursor is read in several round trips.
+@SpringBootTest(properties = {
+        "app.admin.api-key=test-admin-key",
+        "app.users.export.fetch-size=2"
+})
+@AutoConfigureMockMvc
+class UserExportIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportUsers_selectedFieldsGzipped_shouldStreamOneJsonObjectPerUser() throws Exception {
+        // arrange
+        for (int i = 0; i < 5; i++) {
+            jdbcTemplate.update("""
+                    insert into users (uid, email, password_hash, first_name, is_verified, is_active, registration_date)
+                    values (?, ?, 'secret-hash', ?, ?, true, ?)
+                    """, UuidV7Generator.next(), "export" + i + "@example.com", "Export" + i, i % 2 == 0,
+                    Timestamp.valueOf(LocalDateTime.now()));
+        }
+
+        // act
+        byte[] gzipped = mockMvc.perform(get("/api/admin/users/export")
+                        .header("X-Admin-Api-Key", "test-admin-key")
+                        .header("Accept-Encoding", "gzip")
+                        .param("fields", "uid,email,isVerified"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        // assert
+        String ndjson;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            ndjson = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertTrue(ndjson.endsWith("\n"));
+        assertFalse(ndjson.contains("secret-hash"));
+
+        List<JsonNode> exported = ndjson.lines()
+                .map(line -> assertDoesNotThrow(() -> objectMapper.readTree(line)))
+                .filter(node -> node.get("email").asText().startsWith("export"))
+                .toList();
+        assertEquals(5, exported.size());
+        for (JsonNode node : exported) {
+            List<String> names = new ArrayList<>();
+            node.fieldNames().forEachRemaining(names::add);
+            assertEquals(List.of("uid", "email", "isVerified"), names);
+            int i = node.get("email").asText().charAt("export".length()) - '0';
+            assertEquals(i % 2 == 0, node.get("isVerified").asBoolean());
+            assertEquals(7, UUID.fromString(node.get("uid").asText()).version());
+        }
+
+        mockMvc.perform(get("/api/admin/users/export")
+                        .header("X-Admin-Api-Key", "test-admin-key")
+                        .param("fields", "email,passwordHash"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/admin/users/export"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.rachelklein.userauth.integration;
+
+import com.example.rachelklein.userauth.dto.response.UserImportResponse;
+import com.example.rachelklein.userauth.entity.User;
+import com.example.rachelklein.userauth.repository.UserRepository;
+import com.example.rachelklein.userauth.service.UserImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+
+@SpringBootTest
+class UserImportConcurrentRegistrationIntegrationTest {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoSpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importUsers_emailsRegisteredAfterTheExistenceCheck_shouldBeSkippedNotFailTheImport() throws Exception {
+        // arrange - the existence check comes back clean, but two of the emails register right after it
+        AtomicBoolean registered = new AtomicBoolean();
+        doAnswer(invocation -> {
+            if (registered.compareAndSet(false, true)) {
+                register("race.second@example.com");
+                register("Race.Third@example.com");
+            }
+            return List.of();
+        }).when(jdbcTemplate).queryForList(startsWith("select email_normalized from users"), eq(String.class),
+                any(Object[].class));
+        String csv = """
+                email,password
+                race.first@example.com,First1pass
+                race.second@example.com,Second1pass
+                race.third@example.com,Third1pass
+                """;
+
+        // act
+        UserImportResponse response;
+        try {
+            response = userImportService.importUsers(
+                    new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "text/csv");
+        } finally {
+            reset(jdbcTemplate);
+        }
+
+        // assert - the clashing rows are reported as duplicates, the rest of the batch is imported
+        assertEquals(1, response.getImported());
+        assertEquals(2, response.getRejected());
+        assertEquals(List.of(3L, 4L), response.getRejects().stream().map(UserImportResponse.Reject::getLine).toList());
+        assertTrue(response.getRejects().stream().allMatch(r -> r.getReason().equals("Email already exists")));
+        assertTrue(userRepository.findByEmailNormalized("race.first@example.com").isPresent());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from users where email_normalized = 'race.third@example.com'", Integer.class));
+    }
+
+    private void register(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPasswordHash("unused");
+        user.setIsVerified(true);
+        user.setIsActive(true);
+        user.setRegistrationDate(LocalDateTime.now());
+        userRepository.save(user);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.rachelklein.userauth.integration;
+
+import com.example.rachelklein.userauth.dto.response.UserImportResponse;
+import com.example.rachelklein.userauth.repository.UserRepository;
+import com.example.rachelklein.userauth.service.UserImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UserImportOverlongFieldsIntegrationTest {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void importUsers_valuesLongerThanTheirColumns_shouldBeRejectedNotFailTheImport() throws Exception {
+        // arrange - 32 characters as given, but U+FDFA expands to 18 under NFKC
+        String expandingEmail = "ﷺ".repeat(20) + "@example.com";
+        String ndjson = String.join("\n",
+                "{\"email\":\"overlong.ok@example.com\",\"password\":\"Fine1pass\"}",
+                "{\"email\":\"overlong.first@example.com\",\"password\":\"Fine1pass\",\"firstName\":\"%s\"}"
+                        .formatted("a".repeat(256)),
+                "{\"email\":\"overlong.last@example.com\",\"password\":\"Fine1pass\",\"lastName\":\"%s\"}"
+                        .formatted("b".repeat(256)),
+                "{\"email\":\"overlong.phone@example.com\",\"password\":\"Fine1pass\",\"phoneNumber\":\"%s\"}"
+                        .formatted("1".repeat(256)),
+                "{\"email\":\"overlong.hash@example.com\",\"passwordHash\":\"{argon2}$argon2id$%s\"}"
+                        .formatted("c".repeat(256)),
+                "{\"email\":\"%s\",\"password\":\"Fine1pass\"}".formatted(expandingEmail),
+                // 200 characters, but 400 UTF-16 units
+                "{\"email\":\"overlong.emoji@example.com\",\"password\":\"Fine1pass\",\"firstName\":\"%s\"}"
+                        .formatted("😀".repeat(200)),
+                "{\"email\":\"overlong.last.ok@example.com\",\"password\":\"Fine1pass\",\"lastName\":\"%s\"}"
+                        .formatted("d".repeat(255)));
+
+        // act
+        UserImportResponse response = userImportService.importUsers(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), "application/x-ndjson");
+
+        // assert
+        assertEquals(2, response.getImported());
+        assertEquals(List.of("firstName too long", "lastName too long", "phoneNumber too long",
+                        "passwordHash too long", "Invalid email", "firstName too long"),
+                response.getRejects().stream().map(UserImportResponse.Reject::getReason).toList());
+        assertTrue(userRepository.findByEmailNormalized("overlong.ok@example.com").isPresent());
+        assertTrue(userRepository.findByEmailNormalized("overlong.last.ok@example.com").isPresent());
+    }
+}
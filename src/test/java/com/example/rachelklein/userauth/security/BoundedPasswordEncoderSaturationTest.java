@@ -0,0 +1,79 @@
+package com.example.rachelklein.userauth.security;
+
+import com.example.rachelklein.userauth.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderSaturationTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.destroy();
+    }
+
+    @Test
+    void fullPoolAndQueue_shouldRejectWithServiceBusyAndRecoverAfterwards() throws Exception {
+        // arrange - one worker, one queue slot, a delegate that blocks until released
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1, 2, meterRegistry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        awaitQueueDepth(1);
+
+        // act + assert
+        ServiceBusyException ex = assertThrows(ServiceBusyException.class, () -> encoder.encode("third"));
+        assertEquals(2, ex.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("password.hash.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hashed:first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hashed:second", queued.get(5, TimeUnit.SECONDS));
+        assertTrue(encoder.matches("fourth", "hashed:fourth"));
+        assertEquals(2, meterRegistry.get("password.hash.latency").tag("operation", "encode").timer().count());
+    }
+
+    private void awaitQueueDepth(double depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (meterRegistry.get("password.hash.queue.depth").gauge().value() < depth) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Task was not queued in time");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private class BlockingEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return ("hashed:" + rawPassword).equals(encodedPassword);
+        }
+    }
+}
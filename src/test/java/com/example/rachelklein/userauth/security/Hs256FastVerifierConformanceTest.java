@@ -0,0 +1,152 @@
+package com.example.rachelklein.userauth.security;
+
+import com.example.rachelklein.userauth.entity.User;
+import com.example.rachelklein.userauth.exception.InvalidTokenException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Hs256FastVerifierConformanceTest {
+
+    private static final String SECRET = "change-this-to-a-very-long-random-string-at-least-64-characters-1234567890";
+
+    private JwtSigningKey key;
+    private JwtKeySet keySet;
+
+    private Hs256FastVerifier fastVerifier;
+    private JwtService jjwtOnly;
+    private JwtService withFastPath;
+
+    @BeforeEach
+    void setUp() {
+        key = JwtSigningKey.hmac("default", Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)));
+        keySet = new JwtKeySet(key, List.of(key));
+
+        fastVerifier = new Hs256FastVerifier();
+        jjwtOnly = new JwtService(new JwtKeyProvider(keySet), 30, false);
+        withFastPath = new JwtService(new JwtKeyProvider(keySet), 30, true);
+    }
+
+    @Test
+    void tokensFromGenerateToken_shouldBeHandledByFastPathWithTheSameResultAsJjwt() {
+        for (int i = 0; i < 200; i++) {
+            String token = jjwtOnly.generateToken(user("user" + i + "@example.com"));
+
+            VerifiedToken fast = fastVerifier.verify(token, keySet);
+
+            assertNotNull(fast, "fast path should handle our own tokens");
+            assertEquals(jjwtOnly.verifyToken(token), fast);
+        }
+    }
+
+    @Test
+    void escapedAndUnicodeEmailClaims_shouldStillMatchJjwt() {
+        String token = jjwtOnly.generateToken(user("\"quoted\\\"ünïcode\"@example.com"));
+
+        assertEquals(jjwtOnly.verifyToken(token), fastVerifier.verify(token, keySet));
+    }
+
+    @Test
+    void tamperedSignature_shouldBeRejectedLikeJjwt() {
+        String token = jjwtOnly.generateToken(user("tamper@example.com"));
+        char last = token.charAt(token.length() - 2);
+        String tampered = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1);
+
+        assertThrows(InvalidTokenException.class, () -> jjwtOnly.verifyToken(tampered));
+        assertThrows(InvalidTokenException.class, () -> withFastPath.verifyToken(tampered));
+    }
+
+    @Test
+    void tamperedPayload_shouldBeRejectedLikeJjwt() {
+        String token = jjwtOnly.generateToken(user("victim@example.com"));
+        String other = jjwtOnly.generateToken(user("attacker@example.com"));
+        String[] parts = token.split("\\.");
+        String swapped = parts[0] + "." + other.split("\\.")[1] + "." + parts[2];
+
+        assertThrows(InvalidTokenException.class, () -> jjwtOnly.verifyToken(swapped));
+        assertThrows(InvalidTokenException.class, () -> withFastPath.verifyToken(swapped));
+    }
+
+    @Test
+    void expiredToken_shouldBeRejectedLikeJjwt() {
+        JwtService expiredIssuer = new JwtService(new JwtKeyProvider(keySet), -1, false);
+        String token = expiredIssuer.generateToken(user("expired@example.com"));
+
+        assertThrows(InvalidTokenException.class, () -> jjwtOnly.verifyToken(token));
+        assertThrows(InvalidTokenException.class, () -> withFastPath.verifyToken(token));
+    }
+
+    @Test
+    void unknownKid_shouldFallBackAndBeRejectedByJjwt() {
+        JwtSigningKey otherKey = JwtSigningKey.hmac("other", Keys.hmacShaKeyFor(new byte[32]));
+        JwtKeySet otherKeySet = new JwtKeySet(otherKey, List.of(otherKey));
+        String token = new JwtService(new JwtKeyProvider(otherKeySet), 30, false).generateToken(user("x@example.com"));
+
+        assertNull(fastVerifier.verify(token, keySet));
+        assertThrows(InvalidTokenException.class, () -> withFastPath.verifyToken(token));
+    }
+
+    @Test
+    void unusualButValidTokens_shouldFallBackToJjwtAndStillVerify() {
+        UUID uid = UUID.randomUUID();
+        Instant now = Instant.now();
+
+        // Extra header parameter.
+        String extraHeader = Jwts.builder()
+                .header().keyId("default").add("x-trace", "abc").and()
+                .subject(uid.toString())
+                .expiration(Date.from(now.plusSeconds(600)))
+                .signWith(key.signingKey(), key.algorithm())
+                .compact();
+
+        // nbf claim.
+        String notBefore = Jwts.builder()
+                .header().keyId("default").and()
+                .subject(uid.toString())
+                .notBefore(Date.from(now.minusSeconds(10)))
+                .expiration(Date.from(now.plusSeconds(600)))
+                .signWith(key.signingKey(), key.algorithm())
+                .compact();
+
+        // Nested claim.
+        String nested = Jwts.builder()
+                .header().keyId("default").and()
+                .subject(uid.toString())
+                .claim("profile", Map.of("firstName", "John"))
+                .expiration(Date.from(now.plusSeconds(600)))
+                .signWith(key.signingKey(), key.algorithm())
+                .compact();
+
+        for (String token : List.of(extraHeader, notBefore, nested)) {
+            assertNull(fastVerifier.verify(token, keySet));
+            assertEquals(uid, withFastPath.verifyToken(token).uid());
+        }
+    }
+
+    @Test
+    void malformedTokens_shouldBeRejectedLikeJjwt() {
+        String token = jjwtOnly.generateToken(user("malformed@example.com"));
+
+        for (String malformed : List.of("", "abc", "a.b", "a.b.c", token + ".", token.replace('.', '!'))) {
+            assertThrows(InvalidTokenException.class, () -> jjwtOnly.verifyToken(malformed));
+            assertThrows(InvalidTokenException.class, () -> withFastPath.verifyToken(malformed));
+        }
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setUid(UUID.randomUUID());
+        user.setEmail(email);
+        return user;
+    }
+}
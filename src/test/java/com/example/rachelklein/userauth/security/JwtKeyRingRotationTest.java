@@ -0,0 +1,109 @@
+package com.example.rachelklein.userauth.security;
+
+import com.example.rachelklein.userauth.entity.User;
+import com.example.rachelklein.userauth.exception.InvalidTokenException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtKeyRingRotationTest {
+
+    private static final String SECRET = "change-this-to-a-very-long-random-string-at-least-64-characters-1234567890";
+    private static final char[] PASSWORD = "changeit".toCharArray();
+
+    @TempDir
+    Path tempDir;
+
+    private JwtKeyProvider keyProvider;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (keyProvider != null) {
+            keyProvider.destroy();
+        }
+    }
+
+    @Test
+    void keyRingFileChanges_shouldRotateSigningKeyLiveAndKeepOlderKeysVerifiable() throws Exception {
+        // arrange
+        Path keyRingFile = tempDir.resolve("jwt-keyring.p12");
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, PASSWORD);
+        addKey(keyStore, "jwt-20260101");
+        store(keyStore, keyRingFile);
+
+        keyProvider = new JwtKeyProvider("HS256", SECRET, "default", "", "",
+                keyRingFile.toString(), new String(PASSWORD), new DefaultResourceLoader());
+        JwtService jwtService = new JwtService(keyProvider, 30);
+
+        User user = new User();
+        user.setUid(UUID.randomUUID());
+        user.setEmail("rotation@example.com");
+
+        String firstToken = jwtService.generateToken(user);
+        assertEquals("jwt-20260101", kidOf(firstToken));
+
+        // act - add a newer key without restarting
+        addKey(keyStore, "jwt-20261018");
+        store(keyStore, keyRingFile);
+        awaitTrue(() -> "jwt-20261018".equals(kidOf(jwtService.generateToken(user))));
+
+        // assert - tokens from the previous key stay valid
+        assertEquals(user.getUid(), jwtService.extractUidFromToken(firstToken));
+
+        // act - retire the old key
+        keyStore.deleteEntry("jwt-20260101");
+        store(keyStore, keyRingFile);
+        awaitTrue(() -> jwtService.currentKeys().find("jwt-20260101") == null);
+
+        // assert
+        assertThrows(InvalidTokenException.class, () -> jwtService.extractUidFromToken(firstToken));
+        assertEquals(user.getUid(), jwtService.extractUidFromToken(jwtService.generateToken(user)));
+    }
+
+    private static void addKey(KeyStore keyStore, String alias) throws Exception {
+        byte[] keyBytes = new byte[32];
+        new SecureRandom().nextBytes(keyBytes);
+        keyStore.setEntry(alias, new KeyStore.SecretKeyEntry(new SecretKeySpec(keyBytes, "HmacSHA256")),
+                new KeyStore.PasswordProtection(PASSWORD));
+    }
+
+    private static void store(KeyStore keyStore, Path file) throws Exception {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            keyStore.store(out, PASSWORD);
+        }
+    }
+
+    private static String kidOf(String token) {
+        try {
+            byte[] header = Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.')));
+            return new ObjectMapper().readTree(header).get("kid").asText();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Key ring was not reloaded in time");
+            }
+            Thread.sleep(50);
+        }
+    }
+}
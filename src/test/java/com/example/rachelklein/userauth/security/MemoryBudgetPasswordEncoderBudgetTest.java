@@ -0,0 +1,70 @@
+package com.example.rachelklein.userauth.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryBudgetPasswordEncoderBudgetTest {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Test
+    void concurrentHashes_shouldNeverExceedMemoryBudget() throws Exception {
+        // arrange - 64 MiB per hash, 128 MiB budget: at most two hashes at a time
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MemoryBudgetPasswordEncoder encoder = new MemoryBudgetPasswordEncoder(new SlowEncoder(),
+                64 * 1024, 128 * 1024, 5_000, 1, meterRegistry);
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            // act
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                String password = "password" + i;
+                results.add(callers.submit(() -> encoder.encode(password)));
+            }
+
+            // assert
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals("hashed:password" + i, results.get(i).get());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertEquals(2, maxInFlight.get());
+        assertEquals(0.0, meterRegistry.get("password.hash.memory.in-use").gauge().value());
+    }
+
+    private class SlowEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            int now = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return ("hashed:" + rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.rachelklein.userauth.security;
+
+import com.example.rachelklein.userauth.exception.InvalidTokenException;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class VerifiedTokenCacheRepeatTokenTest {
+
+    private JwtService jwtService;
+    private SimpleMeterRegistry meterRegistry;
+
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = mock(JwtService.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        verifiedTokenCache = new VerifiedTokenCache(jwtService, meterRegistry, 100);
+    }
+
+    @Test
+    void extractUid_sameTokenTwice_shouldVerifyOnceAndServeSecondFromCache() {
+        // arrange
+        UUID uid = UUID.randomUUID();
+        JwtSigningKey key = JwtSigningKey.hmac("k1", Keys.hmacShaKeyFor(new byte[32]));
+        when(jwtService.currentKeys()).thenReturn(new JwtKeySet(key, List.of(key)));
+        when(jwtService.verifyToken("TOKEN")).thenReturn(new VerifiedToken(uid, "k1", Instant.now().plusSeconds(600)));
+        when(jwtService.isTrustedKey("k1", key.verificationKey())).thenReturn(true);
+        when(jwtService.verifyToken("BAD")).thenThrow(new InvalidTokenException());
+
+        // act
+        UUID first = verifiedTokenCache.extractUid("TOKEN");
+        UUID second = verifiedTokenCache.extractUid("TOKEN");
+
+        // assert
+        assertEquals(uid, first);
+        assertEquals(uid, second);
+        verify(jwtService, times(1)).verifyToken("TOKEN");
+
+        // Invalid tokens are rejected every time and never cached.
+        assertThrows(InvalidTokenException.class, () -> verifiedTokenCache.extractUid("BAD"));
+        assertThrows(InvalidTokenException.class, () -> verifiedTokenCache.extractUid("BAD"));
+        verify(jwtService, times(2)).verifyToken("BAD");
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt.verified-tokens").tag("result", "hit")
+                .functionCounter().count());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.rachelklein.userauth.security;
+
+import com.example.rachelklein.userauth.exception.InvalidTokenException;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class VerifiedTokenCacheReplacedKeyTest {
+
+    @Test
+    void extractUid_secretReplacedUnderSameKid_shouldStopTrustingCachedToken() {
+        // arrange - a token verified and cached under kid k1
+        JwtSigningKey original = key("k1");
+        JwtKeyProvider keyProvider = mock(JwtKeyProvider.class);
+        when(keyProvider.current()).thenReturn(new JwtKeySet(original, List.of(original)));
+        JwtService jwtService = new JwtService(keyProvider, 30);
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(jwtService, new SimpleMeterRegistry(), 100);
+
+        UUID uid = UUID.randomUUID();
+        String token = jwtService.generateToken(uid, "replaced.key@example.com");
+        assertEquals(uid, verifiedTokenCache.extractUid(token));
+
+        // act - the key ring reloads with a new secret under the same alias
+        JwtSigningKey replacement = key("k1");
+        when(keyProvider.current()).thenReturn(new JwtKeySet(replacement, List.of(replacement)));
+
+        // assert - the cached entry is not trusted, and the token fails verification against the new secret
+        assertThrows(InvalidTokenException.class, () -> verifiedTokenCache.extractUid(token));
+
+        // An unchanged ring reloaded as new objects keeps tokens of the new secret cached.
+        String fresh = jwtService.generateToken(uid, "replaced.key@example.com");
+        assertEquals(uid, verifiedTokenCache.extractUid(fresh));
+        JwtSigningKey reloaded = JwtSigningKey.hmac("k1",
+                Keys.hmacShaKeyFor(replacement.verificationKey().getEncoded()));
+        when(keyProvider.current()).thenReturn(new JwtKeySet(reloaded, List.of(reloaded)));
+        assertTrue(jwtService.isTrustedKey("k1", replacement.verificationKey()));
+        assertEquals(uid, verifiedTokenCache.extractUid(fresh));
+    }
+
+    private static JwtSigningKey key(String kid) {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return JwtSigningKey.hmac(kid, Keys.hmacShaKeyFor(secret));
+    }
+}
@@ -1,15 +1,15 @@
 package com.example.rachelklein.userauth.service;
 
 import com.example.rachelklein.userauth.dto.request.LoginRequest;
-import com.example.rachelklein.userauth.entity.User;
 import com.example.rachelklein.userauth.exception.AccountNotVerifiedException;
-import com.example.rachelklein.userauth.repository.RefreshTokenRepository;
+import com.example.rachelklein.userauth.repository.UserLoginView;
 import com.example.rachelklein.userauth.repository.UserRepository;
 import com.example.rachelklein.userauth.security.JwtService;
-import com.example.rachelklein.userauth.util.TokenService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -20,22 +20,35 @@ import static org.mockito.Mockito.*;
 class AccountServiceLoginNotVerifiedTest {
 
     private UserRepository userRepository;
-    private RefreshTokenRepository refreshTokenRepository;
     private PasswordEncoder passwordEncoder;
-    private TokenService tokenService;
+    private AccountTokenService accountTokenService;
     private JwtService jwtService;
+    private PasswordRehashService passwordRehashService;
+    private LastLoginWriteBuffer lastLoginWriteBuffer;
+    private RefreshTokenService refreshTokenService;
+    private UserInfoCache userInfoCache;
+    private RegisteredEmailCache registeredEmailCache;
+    private EmailMembershipFilter emailMembershipFilter;
 
     private AccountService accountService;
 
     @BeforeEach
     void setUp() {
         userRepository = mock(UserRepository.class);
-        refreshTokenRepository = mock(RefreshTokenRepository.class);
         passwordEncoder = mock(PasswordEncoder.class);
-        tokenService = mock(TokenService.class);
+        accountTokenService = mock(AccountTokenService.class);
         jwtService = mock(JwtService.class);
+        passwordRehashService = mock(PasswordRehashService.class);
+        lastLoginWriteBuffer = mock(LastLoginWriteBuffer.class);
+        refreshTokenService = mock(RefreshTokenService.class);
+        userInfoCache = mock(UserInfoCache.class);
+        registeredEmailCache = mock(RegisteredEmailCache.class);
+        emailMembershipFilter = mock(EmailMembershipFilter.class);
 
-        accountService = new AccountService(userRepository, refreshTokenRepository, passwordEncoder, tokenService, jwtService);
+        accountService = new AccountService(userRepository, passwordEncoder, accountTokenService, jwtService,
+                passwordRehashService, lastLoginWriteBuffer, refreshTokenService, userInfoCache,
+                registeredEmailCache, emailMembershipFilter,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
     }
 
     @Test
@@ -45,20 +58,18 @@ class AccountServiceLoginNotVerifiedTest {
         req.setLoginID("user@example.com");
         req.setPassword("SecurePass123");
 
-        User user = new User();
-        user.setUid(UUID.randomUUID());
-        user.setEmail("user@example.com");
-        user.setPasswordHash("HASH");
-        user.setIsVerified(false); // Critical for testing.
+        UserLoginView user = new UserLoginView(UUID.randomUUID(), "user@example.com", "HASH", null, null,
+                false, true); // Not verified - critical for testing.
 
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+        when(emailMembershipFilter.mightContain("user@example.com")).thenReturn(true);
+        when(userRepository.findLoginViewByEmail("user@example.com")).thenReturn(Optional.of(user));
         when(passwordEncoder.matches("SecurePass123", "HASH")).thenReturn(true);
 
         // act + assert
         assertThrows(AccountNotVerifiedException.class, () -> accountService.login(req));
 
         // verify
-        verify(userRepository).findByEmail("user@example.com");
+        verify(userRepository).findLoginViewByEmail("user@example.com");
         verify(passwordEncoder).matches("SecurePass123", "HASH");
         verifyNoInteractions(jwtService); // JWT should not be issued if not verified.
         verify(userRepository, never()).save(any());
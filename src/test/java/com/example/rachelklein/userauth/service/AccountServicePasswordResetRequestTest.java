@@ -1,17 +1,19 @@
 package com.example.rachelklein.userauth.service;
 
 import com.example.rachelklein.userauth.dto.request.PasswordResetRequest;
+import com.example.rachelklein.userauth.entity.AccountTokenType;
 import com.example.rachelklein.userauth.entity.User;
-import com.example.rachelklein.userauth.repository.RefreshTokenRepository;
 import com.example.rachelklein.userauth.repository.UserRepository;
 import com.example.rachelklein.userauth.security.JwtService;
-import com.example.rachelklein.userauth.util.TokenService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -19,66 +21,71 @@ import static org.mockito.Mockito.*;
 class AccountServicePasswordResetRequestTest {
 
     private UserRepository userRepository;
-    private RefreshTokenRepository refreshTokenRepository;
     private PasswordEncoder passwordEncoder;
-    private TokenService tokenService;
+    private AccountTokenService accountTokenService;
     private JwtService jwtService;
+    private PasswordRehashService passwordRehashService;
+    private LastLoginWriteBuffer lastLoginWriteBuffer;
+    private RefreshTokenService refreshTokenService;
+    private UserInfoCache userInfoCache;
+    private RegisteredEmailCache registeredEmailCache;
+    private EmailMembershipFilter emailMembershipFilter;
 
     private AccountService accountService;
 
     @BeforeEach
     void setUp() {
         userRepository = mock(UserRepository.class);
-        refreshTokenRepository = mock(RefreshTokenRepository.class);
         passwordEncoder = mock(PasswordEncoder.class);
-        tokenService = mock(TokenService.class);
+        accountTokenService = mock(AccountTokenService.class);
         jwtService = mock(JwtService.class);
+        passwordRehashService = mock(PasswordRehashService.class);
+        lastLoginWriteBuffer = mock(LastLoginWriteBuffer.class);
+        refreshTokenService = mock(RefreshTokenService.class);
+        userInfoCache = mock(UserInfoCache.class);
+        registeredEmailCache = mock(RegisteredEmailCache.class);
+        emailMembershipFilter = mock(EmailMembershipFilter.class);
 
         accountService = new AccountService(
                 userRepository,
-                refreshTokenRepository,
                 passwordEncoder,
-                tokenService,
-                jwtService
+                accountTokenService,
+                jwtService,
+                passwordRehashService,
+                lastLoginWriteBuffer,
+                refreshTokenService,
+                userInfoCache,
+                registeredEmailCache,
+                emailMembershipFilter,
+                new TransactionTemplate(mock(PlatformTransactionManager.class))
         );
     }
 
     @Test
-    void requestPasswordReset_shouldGenerateTokenSetExpiryAndSaveUser() {
+    void requestPasswordReset_shouldIssueResetTokenWithoutSavingUser() {
         // arrange
         String email = "reset.user@example.com";
 
         User user = new User();
+        user.setUid(UUID.randomUUID());
         user.setEmail(email);
 
+        when(emailMembershipFilter.mightContain(email)).thenReturn(true);
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
-
-        when(tokenService.generateToken()).thenReturn("RESET_TOKEN_123");
+        when(accountTokenService.issue(eq(user.getUid()), eq(AccountTokenType.PASSWORD_RESET), any(Duration.class)))
+                .thenReturn("RESET_TOKEN_123");
 
         PasswordResetRequest request = new PasswordResetRequest();
         request.setEmail(email);
 
-        LocalDateTime before = LocalDateTime.now();
-
         // act
         accountService.requestPasswordReset(request);
 
-        // assert
-        assertNotNull(user.getPasswordResetToken(), "Password reset token should be set");
-        assertEquals("RESET_TOKEN_123", user.getPasswordResetToken());
-
-        assertNotNull(user.getPasswordResetTokenExpiry(), "Password reset token expiry should be set");
-        assertTrue(
-                user.getPasswordResetTokenExpiry().isAfter(before),
-                "Expiry should be set to a future time"
-        );
-
+        // assert - a one-hour reset token is issued without writing the users row
         verify(userRepository).findByEmail(email);
-        verify(tokenService).generateToken();
-        verify(userRepository).save(user);
+        verify(accountTokenService).issue(user.getUid(), AccountTokenType.PASSWORD_RESET, Duration.ofHours(1));
+        verify(userRepository, never()).save(any());
 
-        verifyNoInteractions(passwordEncoder, jwtService, refreshTokenRepository);
+        verifyNoInteractions(passwordEncoder, jwtService, refreshTokenService);
     }
 }
@@ -1,41 +1,61 @@
 package com.example.rachelklein.userauth.service;
 
 import com.example.rachelklein.userauth.dto.request.RegisterRequest;
+import com.example.rachelklein.userauth.entity.User;
 import com.example.rachelklein.userauth.exception.DuplicateEmailException;
-import com.example.rachelklein.userauth.repository.RefreshTokenRepository;
 import com.example.rachelklein.userauth.repository.UserRepository;
 import com.example.rachelklein.userauth.security.JwtService;
-import com.example.rachelklein.userauth.util.TokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 class AccountServiceRegisterDuplicateEmailTest {
 
     private UserRepository userRepository;
-    private RefreshTokenRepository refreshTokenRepository;
     private PasswordEncoder passwordEncoder;
-    private TokenService tokenService;
+    private AccountTokenService accountTokenService;
     private JwtService jwtService;
+    private PasswordRehashService passwordRehashService;
+    private LastLoginWriteBuffer lastLoginWriteBuffer;
+    private RefreshTokenService refreshTokenService;
+    private UserInfoCache userInfoCache;
+    private RegisteredEmailCache registeredEmailCache;
+    private EmailMembershipFilter emailMembershipFilter;
 
     private AccountService accountService;
 
     @BeforeEach
     void setUp() {
         userRepository = mock(UserRepository.class);
-        refreshTokenRepository = mock(RefreshTokenRepository.class);
         passwordEncoder = mock(PasswordEncoder.class);
-        tokenService = mock(TokenService.class);
+        accountTokenService = mock(AccountTokenService.class);
         jwtService = mock(JwtService.class);
+        passwordRehashService = mock(PasswordRehashService.class);
+        lastLoginWriteBuffer = mock(LastLoginWriteBuffer.class);
+        refreshTokenService = mock(RefreshTokenService.class);
+        userInfoCache = mock(UserInfoCache.class);
+        registeredEmailCache = new RegisteredEmailCache(new SimpleMeterRegistry(), 100);
+        emailMembershipFilter = mock(EmailMembershipFilter.class);
 
-        accountService = new AccountService(userRepository, refreshTokenRepository, passwordEncoder, tokenService, jwtService);
+        accountService = new AccountService(userRepository, passwordEncoder, accountTokenService, jwtService,
+                passwordRehashService, lastLoginWriteBuffer, refreshTokenService, userInfoCache,
+                registeredEmailCache, emailMembershipFilter,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
     }
 
     @Test
-    void register_existingEmail_shouldThrowDuplicateEmailException() {
+    void register_existingEmail_shouldMapUniqueViolationThenRefuseRepeatsBeforeHashing() {
         // arrange
         RegisterRequest req = new RegisterRequest();
         req.setEmail("user@example.com");
@@ -46,17 +66,21 @@ class AccountServiceRegisterDuplicateEmailTest {
         profile.setLastName("Doe");
         req.setProfile(profile);
 
-        when(userRepository.existsByEmail("user@example.com")).thenReturn(true);
+        when(passwordEncoder.encode("SecurePass123")).thenReturn("HASHED_PASSWORD");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("Unique index or primary key violation",
+                        new SQLException("duplicate", "23505"), "PUBLIC.UK_USERS_EMAIL_INDEX_4")));
+
+        // act + assert - the insert fails on the email constraint
+        assertThrows(DuplicateEmailException.class, () -> accountService.register(req));
 
-        // act + assert
-        assertThrows(
-                DuplicateEmailException.class,
-                () -> accountService.register(req)
-        );
+        // act + assert - the same email again is refused without hashing or touching the database
+        assertThrows(DuplicateEmailException.class, () -> accountService.register(req));
 
-        // Verify – do not proceed with any further action.
-        verify(userRepository).existsByEmail("user@example.com");
+        // Verify – one hash, one insert attempt, no token.
+        verify(passwordEncoder, times(1)).encode("SecurePass123");
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
         verifyNoMoreInteractions(userRepository);
-        verifyNoInteractions(passwordEncoder, tokenService, jwtService);
+        verifyNoInteractions(accountTokenService, jwtService);
     }
 }
@@ -2,18 +2,21 @@ package com.example.rachelklein.userauth.service;
 
 import com.example.rachelklein.userauth.dto.request.RegisterRequest;
 import com.example.rachelklein.userauth.dto.response.RegisterResponse;
+import com.example.rachelklein.userauth.entity.AccountTokenType;
 import com.example.rachelklein.userauth.entity.User;
-import com.example.rachelklein.userauth.repository.RefreshTokenRepository;
 import com.example.rachelklein.userauth.repository.UserRepository;
 import com.example.rachelklein.userauth.security.JwtService;
-import com.example.rachelklein.userauth.util.TokenService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,22 +26,37 @@ import static org.mockito.Mockito.*;
 class AccountServiceRegisterTest {
 
     private UserRepository userRepository;
-    private RefreshTokenRepository refreshTokenRepository;
     private PasswordEncoder passwordEncoder;
-    private TokenService tokenService;
+    private AccountTokenService accountTokenService;
     private JwtService jwtService;
+    private PasswordRehashService passwordRehashService;
+    private LastLoginWriteBuffer lastLoginWriteBuffer;
+    private RefreshTokenService refreshTokenService;
+    private UserInfoCache userInfoCache;
+    private RegisteredEmailCache registeredEmailCache;
+    private EmailMembershipFilter emailMembershipFilter;
+    private PlatformTransactionManager transactionManager;
 
     private AccountService accountService;
 
     @BeforeEach
     void setUp() {
         userRepository = mock(UserRepository.class);
-        refreshTokenRepository = mock(RefreshTokenRepository.class);
         passwordEncoder = mock(PasswordEncoder.class);
-        tokenService = mock(TokenService.class);
+        accountTokenService = mock(AccountTokenService.class);
         jwtService = mock(JwtService.class);
-
-        accountService = new AccountService(userRepository, refreshTokenRepository, passwordEncoder, tokenService, jwtService);
+        passwordRehashService = mock(PasswordRehashService.class);
+        lastLoginWriteBuffer = mock(LastLoginWriteBuffer.class);
+        refreshTokenService = mock(RefreshTokenService.class);
+        userInfoCache = mock(UserInfoCache.class);
+        registeredEmailCache = mock(RegisteredEmailCache.class);
+        emailMembershipFilter = mock(EmailMembershipFilter.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+
+        accountService = new AccountService(userRepository, passwordEncoder, accountTokenService, jwtService,
+                passwordRehashService, lastLoginWriteBuffer, refreshTokenService, userInfoCache,
+                registeredEmailCache, emailMembershipFilter,
+                new TransactionTemplate(transactionManager));
     }
 
     @Test
@@ -55,17 +73,17 @@ class AccountServiceRegisterTest {
         profile.setPhoneNumber("+972501234567");
         req.setProfile(profile);
 
-        when(userRepository.existsByEmail("user@example.com")).thenReturn(false);
         when(passwordEncoder.encode("SecurePass123")).thenReturn("HASHED_PASSWORD");
-        when(tokenService.generateToken()).thenReturn("VERIFICATION_TOKEN");
 
         // Ensure that save returns a User with a uid (as happens in practice after persist).
         UUID generatedUid = UUID.randomUUID();
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
             User u = invocation.getArgument(0);
             u.setUid(generatedUid);
             return u;
         });
+        when(accountTokenService.issue(eq(generatedUid), eq(AccountTokenType.VERIFICATION), any(Duration.class)))
+                .thenReturn("VERIFICATION_TOKEN");
 
         // act
         RegisterResponse res = accountService.register(req);
@@ -80,7 +98,7 @@ class AccountServiceRegisterTest {
 
         // assert - saved entity
         ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
-        verify(userRepository).save(captor.capture());
+        verify(userRepository).saveAndFlush(captor.capture());
         User saved = captor.getValue();
 
         assertEquals("user@example.com", saved.getEmail());
@@ -95,14 +113,20 @@ class AccountServiceRegisterTest {
         assertTrue(Boolean.TRUE.equals(saved.getIsActive()));
 
         assertNotNull(saved.getRegistrationDate());
-        assertEquals("VERIFICATION_TOKEN", saved.getVerificationToken());
-        assertNotNull(saved.getVerificationTokenExpiry());
 
         // verify interactions
-        verify(userRepository).existsByEmail("user@example.com");
+        verify(registeredEmailCache).isRegistered("user@example.com");
+        verify(registeredEmailCache).markRegistered("user@example.com");
         verify(passwordEncoder).encode("SecurePass123");
-        verify(tokenService).generateToken();
+        verify(accountTokenService).issue(generatedUid, AccountTokenType.VERIFICATION, Duration.ofHours(24));
         verifyNoMoreInteractions(jwtService); // Register should not generate a JWT.
+
+        // The password is hashed before the transaction (and its connection) is taken.
+        InOrder inOrder = inOrder(passwordEncoder, transactionManager, userRepository);
+        inOrder.verify(passwordEncoder).encode("SecurePass123");
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(userRepository).saveAndFlush(any(User.class));
+        inOrder.verify(transactionManager).commit(any());
     }
 }
 
@@ -1,18 +1,20 @@
 package com.example.rachelklein.userauth.service;
 
 import com.example.rachelklein.userauth.dto.request.PasswordResetConfirmRequest;
-import com.example.rachelklein.userauth.entity.User;
+import com.example.rachelklein.userauth.entity.AccountToken;
+import com.example.rachelklein.userauth.entity.AccountTokenType;
 import com.example.rachelklein.userauth.exception.ResetTokenExpiredException;
-import com.example.rachelklein.userauth.repository.RefreshTokenRepository;
 import com.example.rachelklein.userauth.repository.UserRepository;
 import com.example.rachelklein.userauth.security.JwtService;
-import com.example.rachelklein.userauth.util.TokenService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
@@ -20,22 +22,35 @@ import static org.mockito.Mockito.*;
 class AccountServiceResetPasswordExpiredTokenTest {
 
     private UserRepository userRepository;
-    private RefreshTokenRepository refreshTokenRepository;
     private PasswordEncoder passwordEncoder;
-    private TokenService tokenService;
+    private AccountTokenService accountTokenService;
     private JwtService jwtService;
+    private PasswordRehashService passwordRehashService;
+    private LastLoginWriteBuffer lastLoginWriteBuffer;
+    private RefreshTokenService refreshTokenService;
+    private UserInfoCache userInfoCache;
+    private RegisteredEmailCache registeredEmailCache;
+    private EmailMembershipFilter emailMembershipFilter;
 
     private AccountService accountService;
 
     @BeforeEach
     void setUp() {
         userRepository = mock(UserRepository.class);
-        refreshTokenRepository = mock(RefreshTokenRepository.class);
         passwordEncoder = mock(PasswordEncoder.class);
-        tokenService = mock(TokenService.class);
+        accountTokenService = mock(AccountTokenService.class);
         jwtService = mock(JwtService.class);
+        passwordRehashService = mock(PasswordRehashService.class);
+        lastLoginWriteBuffer = mock(LastLoginWriteBuffer.class);
+        refreshTokenService = mock(RefreshTokenService.class);
+        userInfoCache = mock(UserInfoCache.class);
+        registeredEmailCache = mock(RegisteredEmailCache.class);
+        emailMembershipFilter = mock(EmailMembershipFilter.class);
 
-        accountService = new AccountService(userRepository, refreshTokenRepository, passwordEncoder, tokenService, jwtService);
+        accountService = new AccountService(userRepository, passwordEncoder, accountTokenService, jwtService,
+                passwordRehashService, lastLoginWriteBuffer, refreshTokenService, userInfoCache,
+                registeredEmailCache, emailMembershipFilter,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
     }
 
     @Test
@@ -45,19 +60,18 @@ class AccountServiceResetPasswordExpiredTokenTest {
         req.setToken("RESET_TOKEN");
         req.setNewPassword("NewSecurePass456");
 
-        User user = new User();
-        user.setPasswordResetToken("RESET_TOKEN");
-        user.setPasswordResetTokenExpiry(LocalDateTime.now().minusMinutes(1)); // Expired.
+        AccountToken resetToken = new AccountToken();
+        resetToken.setType(AccountTokenType.PASSWORD_RESET);
+        resetToken.setUserUid(UUID.randomUUID());
+        resetToken.setExpiry(LocalDateTime.now().minusMinutes(1)); // Expired.
 
-        when(userRepository.findByPasswordResetToken("RESET_TOKEN")).thenReturn(Optional.of(user));
+        when(accountTokenService.find(AccountTokenType.PASSWORD_RESET, "RESET_TOKEN")).thenReturn(Optional.of(resetToken));
 
         // act + assert
         assertThrows(ResetTokenExpiredException.class, () -> accountService.resetPassword(req));
 
-        // Verify – should not update the password or persist any changes.
-        verify(userRepository).findByPasswordResetToken("RESET_TOKEN");
-        verifyNoInteractions(passwordEncoder);
-        verify(userRepository, never()).save(any());
-        verifyNoInteractions(jwtService, tokenService);
+        // Verify – should not use up the token, update the password or persist any changes.
+        verify(accountTokenService, never()).consume(any());
+        verifyNoInteractions(passwordEncoder, userRepository, jwtService);
     }
 }
@@ -2,14 +2,14 @@ package com.example.rachelklein.userauth.service;
 
 import com.example.rachelklein.userauth.dto.request.UpdateProfileRequest;
 import com.example.rachelklein.userauth.entity.User;
-import com.example.rachelklein.userauth.repository.RefreshTokenRepository;
 import com.example.rachelklein.userauth.repository.UserRepository;
 import com.example.rachelklein.userauth.security.JwtService;
-import com.example.rachelklein.userauth.util.TokenService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.Optional;
@@ -21,27 +21,43 @@ import static org.mockito.Mockito.*;
 class AccountServiceUpdateProfilePartialUpdateTest {
 
     private UserRepository userRepository;
-    private RefreshTokenRepository refreshTokenRepository;
     private PasswordEncoder passwordEncoder;
-    private TokenService tokenService;
+    private AccountTokenService accountTokenService;
     private JwtService jwtService;
+    private PasswordRehashService passwordRehashService;
+    private LastLoginWriteBuffer lastLoginWriteBuffer;
+    private RefreshTokenService refreshTokenService;
+    private UserInfoCache userInfoCache;
+    private RegisteredEmailCache registeredEmailCache;
+    private EmailMembershipFilter emailMembershipFilter;
 
     private AccountService accountService;
 
     @BeforeEach
     void setUp() {
         userRepository = mock(UserRepository.class);
-        refreshTokenRepository = mock(RefreshTokenRepository.class);
         passwordEncoder = mock(PasswordEncoder.class);
-        tokenService = mock(TokenService.class);
+        accountTokenService = mock(AccountTokenService.class);
         jwtService = mock(JwtService.class);
+        passwordRehashService = mock(PasswordRehashService.class);
+        lastLoginWriteBuffer = mock(LastLoginWriteBuffer.class);
+        refreshTokenService = mock(RefreshTokenService.class);
+        userInfoCache = mock(UserInfoCache.class);
+        registeredEmailCache = mock(RegisteredEmailCache.class);
+        emailMembershipFilter = mock(EmailMembershipFilter.class);
 
         accountService = new AccountService(
                 userRepository,
-                refreshTokenRepository,
                 passwordEncoder,
-                tokenService,
-                jwtService
+                accountTokenService,
+                jwtService,
+                passwordRehashService,
+                lastLoginWriteBuffer,
+                refreshTokenService,
+                userInfoCache,
+                registeredEmailCache,
+                emailMembershipFilter,
+                new TransactionTemplate(mock(PlatformTransactionManager.class))
         );
     }
 
@@ -79,6 +95,7 @@ class AccountServiceUpdateProfilePartialUpdateTest {
 
         verify(userRepository).findById(uid);
         verify(userRepository).save(user);
-        verifyNoInteractions(passwordEncoder, tokenService, jwtService, refreshTokenRepository);
+        verify(userInfoCache).invalidate(uid);
+        verifyNoInteractions(passwordEncoder, accountTokenService, jwtService, refreshTokenService);
     }
 }
@@ -1,17 +1,20 @@
 package com.example.rachelklein.userauth.service;
 
 import com.example.rachelklein.userauth.dto.request.VerifyRequest;
+import com.example.rachelklein.userauth.entity.AccountToken;
+import com.example.rachelklein.userauth.entity.AccountTokenType;
 import com.example.rachelklein.userauth.entity.User;
-import com.example.rachelklein.userauth.repository.RefreshTokenRepository;
 import com.example.rachelklein.userauth.repository.UserRepository;
 import com.example.rachelklein.userauth.security.JwtService;
-import com.example.rachelklein.userauth.util.TokenService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -19,44 +22,65 @@ import static org.mockito.Mockito.*;
 class AccountServiceVerifyEmailSuccessTest {
 
     private UserRepository userRepository;
-    private RefreshTokenRepository refreshTokenRepository;
     private PasswordEncoder passwordEncoder;
-    private TokenService tokenService;
+    private AccountTokenService accountTokenService;
     private JwtService jwtService;
+    private PasswordRehashService passwordRehashService;
+    private LastLoginWriteBuffer lastLoginWriteBuffer;
+    private RefreshTokenService refreshTokenService;
+    private UserInfoCache userInfoCache;
+    private RegisteredEmailCache registeredEmailCache;
+    private EmailMembershipFilter emailMembershipFilter;
 
     private AccountService accountService;
 
     @BeforeEach
     void setUp() {
         userRepository = mock(UserRepository.class);
-        refreshTokenRepository = mock(RefreshTokenRepository.class);
         passwordEncoder = mock(PasswordEncoder.class);
-        tokenService = mock(TokenService.class);
+        accountTokenService = mock(AccountTokenService.class);
         jwtService = mock(JwtService.class);
+        passwordRehashService = mock(PasswordRehashService.class);
+        lastLoginWriteBuffer = mock(LastLoginWriteBuffer.class);
+        refreshTokenService = mock(RefreshTokenService.class);
+        userInfoCache = mock(UserInfoCache.class);
+        registeredEmailCache = mock(RegisteredEmailCache.class);
+        emailMembershipFilter = mock(EmailMembershipFilter.class);
 
         accountService = new AccountService(
                 userRepository,
-                refreshTokenRepository,
                 passwordEncoder,
-                tokenService,
-                jwtService
+                accountTokenService,
+                jwtService,
+                passwordRehashService,
+                lastLoginWriteBuffer,
+                refreshTokenService,
+                userInfoCache,
+                registeredEmailCache,
+                emailMembershipFilter,
+                new TransactionTemplate(mock(PlatformTransactionManager.class))
         );
     }
 
     @Test
-    void verifyEmail_validToken_shouldVerifyAndClearTokenFields() {
+    void verifyEmail_validToken_shouldConsumeTokenAndMarkVerified() {
         // arrange
         String email = "user@example.com";
         String token = "TOKEN123";
 
         User user = new User();
+        user.setUid(UUID.randomUUID());
         user.setEmail(email);
         user.setIsVerified(false);
-        user.setVerificationToken(token);
-        user.setVerificationTokenExpiry(LocalDateTime.now().plusMinutes(10));
+
+        AccountToken verificationToken = new AccountToken();
+        verificationToken.setType(AccountTokenType.VERIFICATION);
+        verificationToken.setUserUid(user.getUid());
+        verificationToken.setExpiry(LocalDateTime.now().plusMinutes(10));
 
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(accountTokenService.find(AccountTokenType.VERIFICATION, token)).thenReturn(Optional.of(verificationToken));
+        when(accountTokenService.consume(verificationToken)).thenReturn(true);
 
         VerifyRequest req = new VerifyRequest();
         req.setEmail(email);
@@ -65,13 +89,12 @@ class AccountServiceVerifyEmailSuccessTest {
         // act
         accountService.verifyEmail(req);
 
-        // assert
-        assertTrue(Boolean.TRUE.equals(user.getIsVerified()));
-        assertNull(user.getVerificationToken());
-        assertNull(user.getVerificationTokenExpiry());
-
+        // assert - the flag is flipped with a targeted update, not a full-row save
         verify(userRepository).findByEmail(email);
-        verify(userRepository).save(user);
-        verifyNoInteractions(passwordEncoder, tokenService, jwtService, refreshTokenRepository);
+        verify(accountTokenService).consume(verificationToken);
+        verify(userRepository).markVerified(user.getUid());
+        verify(userInfoCache).invalidate(user.getUid());
+        verify(userRepository, never()).save(any());
+        verifyNoInteractions(passwordEncoder, jwtService, refreshTokenService);
     }
 }
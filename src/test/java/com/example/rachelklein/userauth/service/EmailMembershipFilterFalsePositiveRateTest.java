@@ -0,0 +1,35 @@
+package com.example.rachelklein.userauth.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailMembershipFilterFalsePositiveRateTest {
+
+    @Test
+    void bits_filledToCapacity_shouldHaveNoFalseNegativesAndStayNearTargetRate() {
+        // arrange
+        int entries = 100_000;
+        EmailMembershipFilter.Bits bits = new EmailMembershipFilter.Bits(entries, 0.01);
+
+        // act
+        for (int i = 0; i < entries; i++) {
+            bits.add("member" + i + "@example.com");
+        }
+
+        // assert
+        for (int i = 0; i < entries; i++) {
+            assertTrue(bits.mightContain("member" + i + "@example.com"));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < entries; i++) {
+            if (bits.mightContain("stranger" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+        double observed = (double) falsePositives / entries;
+        assertTrue(observed < 0.015, "observed false-positive rate " + observed);
+        assertEquals(0.01, bits.expectedFalsePositiveRate(), 0.002);
+    }
+}
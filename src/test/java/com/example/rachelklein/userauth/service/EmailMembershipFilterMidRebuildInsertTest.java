@@ -0,0 +1,38 @@
+package com.example.rachelklein.userauth.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EmailMembershipFilterMidRebuildInsertTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void add_whileRebuildIsScanning_shouldBeInTheRebuiltFilter() {
+        // arrange - an empty table, and a first build so lookups are answered by the filter
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        EmailMembershipFilter filter =
+                new EmailMembershipFilter(jdbcTemplate, new SimpleMeterRegistry(), true, 0.01, 1000);
+        when(jdbcTemplate.queryForObject("select count(*) from users", Long.class)).thenReturn(0L);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(0L);
+        filter.rebuild();
+        assertFalse(filter.mightContain("mid.scan@example.com"));
+
+        // act - a registration commits after the scan's cursor has passed where its row lands
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(invocation -> {
+            filter.add("Mid.Scan@example.com");
+            assertTrue(filter.mightContain("mid.scan@example.com"));
+            return 0L;
+        });
+        filter.rebuild();
+
+        // assert - the rebuilt filter has it although the scan never saw the row
+        assertTrue(filter.mightContain("mid.scan@example.com"));
+        assertFalse(filter.mightContain("never.registered@example.com"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.rachelklein.userauth.service;
+
+import com.example.rachelklein.userauth.repository.UserInfoView;
+import com.example.rachelklein.userauth.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserInfoCacheInvalidationTest {
+
+    private UserRepository userRepository;
+    private LastLoginWriteBuffer lastLoginWriteBuffer;
+    private SimpleMeterRegistry meterRegistry;
+
+    private UserInfoCache userInfoCache;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        lastLoginWriteBuffer = mock(LastLoginWriteBuffer.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        userInfoCache = new UserInfoCache(userRepository, lastLoginWriteBuffer, meterRegistry, 100, 60);
+    }
+
+    @Test
+    void get_shouldServeRepeatsFromCacheUntilInvalidated() {
+        // arrange
+        UUID uid = UUID.randomUUID();
+        LocalDateTime storedLogin = LocalDateTime.now().minusDays(1);
+        LocalDateTime pendingLogin = LocalDateTime.now();
+        UserInfoView stored = new UserInfoView(uid, "cached@example.com", "First", "Last", null, null, true,
+                LocalDateTime.now().minusYears(1), storedLogin);
+
+        when(userRepository.findInfoViewByUid(uid)).thenReturn(Optional.of(stored));
+
+        // act + assert - second read is a hit
+        assertEquals(stored, userInfoCache.get(uid).orElseThrow());
+        assertEquals(stored, userInfoCache.get(uid).orElseThrow());
+        verify(userRepository, times(1)).findInfoViewByUid(uid);
+
+        // A login invalidates; the reload carries the not yet flushed lastLogin, so it survives the flush.
+        when(lastLoginWriteBuffer.pending(uid)).thenReturn(pendingLogin);
+        userInfoCache.invalidate(uid);
+        assertEquals(pendingLogin, userInfoCache.get(uid).orElseThrow().lastLoginDate());
+        verify(userRepository, times(2)).findInfoViewByUid(uid);
+
+        // Unknown users are looked up every time, never cached.
+        UUID unknown = UUID.randomUUID();
+        when(userRepository.findInfoViewByUid(unknown)).thenReturn(Optional.empty());
+        assertTrue(userInfoCache.get(unknown).isEmpty());
+        assertTrue(userInfoCache.get(unknown).isEmpty());
+        verify(userRepository, times(2)).findInfoViewByUid(unknown);
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "users.info").tag("result", "hit")
+                .functionCounter().count());
+    }
+}